@@ -37,6 +37,10 @@ public class MexicaParameters {
     public static int ACAS_III_CONSTANT = 50;
     public static boolean ENABLE_ACAS_II = true;
     public static boolean ENABLE_ACAS_III = true;
+    /** Number of threads employed to compare the contexts against the atoms (1 for a sequential comparison) */
+    public static int ATOM_RETRIEVAL_PARALLELISM = 1;
+    /** Approximate memory (in KB) employed to store the comparisons between contexts and atoms (0 disables the cache) */
+    public static int SIMILARITY_CACHE_MEMORY = 16384;
     /** Minimum percentage for a context to be considered equivalent to a social atom and break a social norm */
     public static double SOCIAL_ACAS_CONSTANT = 70;
     /** Value for a tension in a story */
@@ -51,6 +55,18 @@ public class MexicaParameters {
     public static int MAX_ACTIONS_IN_STORY = 20;
     /** Maximum number of impasses in a story */
     public static int MAX_IMPASSES = 3;
+    /** Number of partial stories kept in each step of the beam search generation mode */
+    public static int BEAM_WIDTH = 3;
+    /** Number of E-R cycles performed from each partial story in each step of the beam search */
+    public static int BEAM_EXPANSIONS = 3;
+    /** Weight of the tension curve of a partial story to rank it during the beam search */
+    public static double BEAM_TENSION_WEIGHT = 1;
+    /** Weight of the novelty of a partial story to rank it during the beam search */
+    public static double BEAM_NOVELTY_WEIGHT = 10;
+    /** Weight of the distance to the social norms of the previous stories to rank a partial story during the beam search */
+    public static double BEAM_SOCIAL_NORMS_WEIGHT = 1;
+    /** Number of threads employed to perform the E-R cycles of each step of the beam search */
+    public static int BEAM_PARALLELISM = Runtime.getRuntime().availableProcessors();
     
     /** Mode 1: ER1, Mode 2: ER2 */
     public static int CHARACTER_INSTANTIATION_MODE = 2;
@@ -65,6 +81,12 @@ public class MexicaParameters {
     public static int MAX_SIMPLE_ACTION_USAGES_IN_STORY = 3;
     /** (De)activates all the exceptions thrown during the story analysis phase */
     public static boolean ENABLE_STORY_EXCEPTIONS = true;
+    /** (De)activates the checkpoints employed to avoid performing again all the actions when an action is inserted in reflection mode */
+    public static boolean ENABLE_STORY_CHECKPOINTS = true;
+    /** Number of actions performed between two checkpoints */
+    public static int STORY_CHECKPOINT_INTERVAL = 4;
+    /** (De)activates the journal employed to remove the last action added in engagement mode without performing again the story */
+    public static boolean ENABLE_STORY_JOURNAL = true;
     /** (De)activates the option to include illogical actions to the story */
     public static boolean ENABLE_ILLOGICAL_ACTIONS = true;
     /** (De)activates the social analysis of a story */
@@ -98,6 +120,8 @@ public class MexicaParameters {
     public static boolean INCLUDE_NON_REPRESENTATIVE_CONTEXTS = false;
     /** Enables / Disables the graphical notification elements */
     public static boolean DISPLAY_GRAPHICAL_NOTIFICATIONS = false;
+    /** Time (in ms) to group the notifications of a story before updating the graphical interface (0 to update it on every notification) */
+    public static int GUI_UPDATE_DELAY = 100;
     /** Enables / Disables the log info */
     public static boolean ENABLE_LOG_INFO = true;
     /** Enables / disables the Mexica impro collaborative generation */
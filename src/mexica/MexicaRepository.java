@@ -2,6 +2,7 @@ package mexica;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -13,6 +14,7 @@ import mexica.engagement.parser.PreviousStory;
 import mexica.groups.HierarchyStore;
 import mexica.parser.ParseException;
 import mexica.parser.PreviousStories;
+import mexica.reflection.ActionTransitions;
 import mexica.reflection.ActionsParser;
 import mexica.social.parser.SocialActionsParser;
 import mexica.story.SpecialActionStore;
@@ -32,8 +34,8 @@ public class MexicaRepository {
     private AtomsStore atoms, socialAtoms;
     private SpecialActionStore specialActions;
     private TextParser textParser;
-    private FinalStoryAnalyzer storyAnalyzer;
     private PreviousStories previousStoriesParser;
+    private ActionTransitions actionTransitions;
     private HierarchyStore hierarchyStore;
     private RelationsStore relationsStore;
     private AtomConectivityGraph connectivityGraph;
@@ -67,7 +69,15 @@ public class MexicaRepository {
         return textParser;
     }
     
-    public FinalStoryAnalyzer getStoryAnalyzer() {
+    /**
+     * Creates the analyzer of the tensions solved and the special tensions triggered in a story.<br>
+     * Each story has its own analyzer, so several stories can be generated at the same time
+     * @return 
+     */
+    public FinalStoryAnalyzer createStoryAnalyzer() {
+        FinalStoryAnalyzer storyAnalyzer = new FinalStoryAnalyzer();
+        if (specialActions != null)
+            storyAnalyzer.setSpecialActions(specialActions.getActionList());
         return storyAnalyzer;
     }
     
@@ -75,6 +85,14 @@ public class MexicaRepository {
         return previousStoriesParser.getStories();
     }
     
+    /**
+     * Obtains the index of consecutive actions in the previous stories
+     * @return 
+     */
+    public ActionTransitions getActionTransitions() {
+        return actionTransitions;
+    }
+    
     public HierarchyStore getHierarchyStore() {
         return hierarchyStore;
     }
@@ -131,9 +149,6 @@ public class MexicaRepository {
         atomsParser.initParse(MexicaParameters.SOCIAL_ATOMS_FILE);
         socialAtoms = atomsParser.getAtoms();
         
-        storyAnalyzer = new FinalStoryAnalyzer();
-        storyAnalyzer.setSpecialActions(specialActions.getActionList());
-        
         //Reads the previous stories
         boolean ilogicalActions = MexicaParameters.ENABLE_ILLOGICAL_ACTIONS;
         try {
@@ -149,6 +164,8 @@ public class MexicaRepository {
         } finally {
             MexicaParameters.ENABLE_ILLOGICAL_ACTIONS = ilogicalActions;
         }
+        actionTransitions = new ActionTransitions((previousStoriesParser != null) ? 
+                getPreviousStories() : new ArrayList<PreviousStory>());
         
         hierarchyStore = new HierarchyStore(MexicaParameters.HIERARCHIES_FILE);
         hierarchyStore.loadData();
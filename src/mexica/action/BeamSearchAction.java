@@ -0,0 +1,255 @@
+package mexica.action;
+
+import java.awt.event.ActionEvent;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import mexica.MexicaParameters;
+import mexica.story.Story;
+import mexica.story.guidelines.NoveltyAnalyzer;
+import mexica.story.guidelines.SocialNormAnalyzer;
+import mexica.story.log.StoryLog;
+
+/**
+ * Action to create a new story employing the E-R creativity model with a beam search.<br>
+ * Instead of following a single sequence of E-R cycles, the BEAM_WIDTH best partial stories are kept.
+ * In each step, every unfinished story is forked BEAM_EXPANSIONS times and an E-R cycle is performed in each fork.
+ * The forks don't modify the story they were obtained from, so the E-R cycles of a step are performed in parallel
+ * employing BEAM_PARALLELISM threads. Each fork keeps the guidelines of its story, including the Slant prohibitions.
+ * The new stories are ranked by their tension curve, novelty and distance to the social norms of the previous stories,
+ * and the best ones are kept for the next step. The process ends when all the stories in the beam are finished.<br>
+ * The given story is not modified, the best story found is obtained with getStory
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+public class BeamSearchAction extends AbstractAction {
+    private static final long serialVersionUID = 1L;
+    private static ForkJoinPool pool;
+    private Story story;
+    private NoveltyAnalyzer noveltyAnalyzer;
+    private SocialNormAnalyzer socialAnalyzer;
+    private List<Candidate> beam;
+
+    public BeamSearchAction(Story story) {
+        this.story = story;
+        noveltyAnalyzer = new NoveltyAnalyzer();
+        socialAnalyzer = SocialNormAnalyzer.getInstance();
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent ae) {
+        beam = new ArrayList<>();
+        beam.add(new Candidate(story, false, false));
+        int step = 0;
+
+        while (!isBeamFinished()) {
+            List<Candidate> candidates = new ArrayList<>();
+            Set<String> sequences = new HashSet<>();
+            Map<Candidate, List<Candidate>> expansions = expand(ae);
+            for (Candidate candidate : beam) {
+                if (candidate.finished)
+                    addCandidate(candidate, candidates, sequences);
+                else {
+                    for (Candidate expansion : expansions.get(candidate)) {
+                        if (!addCandidate(expansion, candidates, sequences))
+                            StoryLog.removeLog(expansion.story);
+                    }
+                    if (candidate.story != story)
+                        StoryLog.removeLog(candidate.story);
+                }
+            }
+            selectCandidates(candidates);
+            Logger.getGlobal().log(Level.INFO, "Beam search step {0}: {1}", new Object[]{step++, beam});
+        }
+
+        Story initialStory = story;
+        story = beam.get(0).story;
+        for (Candidate candidate : beam.subList(1, beam.size())) {
+            if (candidate.story != initialStory)
+                StoryLog.removeLog(candidate.story);
+        }
+        Logger.getGlobal().log(Level.FINE, "Story finished");
+        if (MexicaParameters.DISPLAY_GRAPHICAL_NOTIFICATIONS)
+            JOptionPane.showMessageDialog(null, "Story finished");
+    }
+
+    /**
+     * @return The best story found, or the initial story if the search hasn't been performed
+     */
+    public Story getStory() {
+        return story;
+    }
+
+    private boolean isBeamFinished() {
+        for (Candidate candidate : beam) {
+            if (!candidate.finished)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Performs an E-R cycle in BEAM_EXPANSIONS forks of each unfinished story of the beam.<br>
+     * The forks are obtained before the cycles are performed, so each cycle only modifies its own story
+     * @return The new stories obtained from each unfinished story
+     */
+    private Map<Candidate, List<Candidate>> expand(ActionEvent ae) {
+        int expansions = Math.max(1, MexicaParameters.BEAM_EXPANSIONS);
+        List<Expansion> tasks = new ArrayList<>();
+        for (Candidate candidate : beam) {
+            for (int i=0; i<expansions && !candidate.finished; i++) {
+                tasks.add(new Expansion(candidate, ae));
+            }
+        }
+        
+        List<Candidate> results = new ArrayList<>();
+        int parallelism = Math.max(1, MexicaParameters.BEAM_PARALLELISM);
+        if (parallelism > 1 && tasks.size() > 1) {
+            for (Future<Candidate> future : obtainPool(parallelism).invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Beam search interrupted", ex);
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof RuntimeException)
+                        throw (RuntimeException)ex.getCause();
+                    throw new IllegalStateException("Error performing an E-R cycle", ex.getCause());
+                }
+            }
+        }
+        else {
+            for (Expansion task : tasks) {
+                results.add(task.call());
+            }
+        }
+        
+        Map<Candidate, List<Candidate>> result = new HashMap<>();
+        for (int i=0; i<tasks.size(); i++) {
+            Candidate parent = tasks.get(i).parent;
+            if (!result.containsKey(parent))
+                result.put(parent, new ArrayList<Candidate>());
+            result.get(parent).add(results.get(i));
+        }
+        return result;
+    }
+    
+    /**
+     * The pool is created again when the degree of parallelism changes
+     * @param parallelism
+     * @return
+     */
+    private static synchronized ForkJoinPool obtainPool(int parallelism) {
+        if (pool == null || pool.getParallelism() != parallelism) {
+            if (pool != null)
+                pool.shutdown();
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Adds the candidate to the list if no other candidate has the same sequence of actions
+     * @return TRUE if the candidate was added
+     */
+    private boolean addCandidate(Candidate candidate, List<Candidate> candidates, Set<String> sequences) {
+        if (!sequences.add(candidate.story.getActions().toString()))
+            return false;
+        candidate.score = score(candidate);
+        candidates.add(candidate);
+        return true;
+    }
+
+    /**
+     * Keeps the BEAM_WIDTH candidates with the highest score
+     */
+    private void selectCandidates(List<Candidate> candidates) {
+        Collections.sort(candidates, new Comparator<Candidate>() {
+            @Override
+            public int compare(Candidate c1, Candidate c2) {
+                return Double.compare(c2.score, c1.score);
+            }
+        });
+        int width = Math.max(1, MexicaParameters.BEAM_WIDTH);
+        beam = new ArrayList<>(candidates.subList(0, Math.min(width, candidates.size())));
+        for (Candidate candidate : candidates.subList(beam.size(), candidates.size())) {
+            if (candidate.story != story)
+                StoryLog.removeLog(candidate.story);
+        }
+    }
+
+    /**
+     * Ranks a story by its tension curve, its novelty and its distance to the social norms of the previous stories.<br>
+     * The tension curve is evaluated by its climax, and when the story is finished, by the tensions solved after it
+     * @param candidate
+     * @return The score of the story, higher is better
+     */
+    private double score(Candidate candidate) {
+        Story story = candidate.story;
+        int climax = 0, lastTension = 0;
+        for (Integer tension : story.getTensionVector().getTensions()) {
+            lastTension = tension;
+            climax = Math.max(climax, lastTension);
+        }
+        double tension = (candidate.finished) ? 2 * climax - lastTension : climax;
+        double novelty = 1 - noveltyAnalyzer.obtainSimilarity(story) / 100;
+        double socialNorms = (story.getActions().isEmpty()) ? 0 : (double)socialAnalyzer.obtainDistance(story) / story.getActions().size();
+
+        return MexicaParameters.BEAM_TENSION_WEIGHT * tension +
+               MexicaParameters.BEAM_NOVELTY_WEIGHT * novelty -
+               MexicaParameters.BEAM_SOCIAL_NORMS_WEIGHT * socialNorms;
+    }
+
+    /**
+     * E-R cycle performed in a fork of a partial story
+     */
+    private static class Expansion implements Callable<Candidate> {
+        private Candidate parent;
+        private Story fork;
+        private ERStepAction stepAction;
+        private ActionEvent ae;
+
+        Expansion(Candidate parent, ActionEvent ae) {
+            this.parent = parent;
+            this.ae = ae;
+            fork = parent.story.fork();
+            StoryLog.copyLog(parent.story, fork);
+            stepAction = new ERStepAction(fork);
+            stepAction.setImpasseDetected(parent.impasseDetected);
+        }
+
+        @Override
+        public Candidate call() {
+            boolean finished = false;
+            try {
+                stepAction.actionPerformed(ae);
+            } catch (Error e) {
+                finished = true;
+            }
+            return new Candidate(fork, stepAction.isImpasseDetected(), finished);
+        }
+    }
+
+    /**
+     * Partial story in the beam
+     */
+    private static class Candidate {
+        private Story story;
+        private boolean impasseDetected;
+        private boolean finished;
+        private double score;
+
+        Candidate(Story story, boolean impasseDetected, boolean finished) {
+            this.story = story;
+            this.impasseDetected = impasseDetected;
+            this.finished = finished;
+        }
+
+        @Override
+        public String toString() {
+            return story.getActions().size() + " actions, score " + score + ((finished) ? ", finished" : "");
+        }
+    }
+}
@@ -32,15 +32,16 @@ public class EngagementAction extends AbstractAction{
     
     @Override
     public void actionPerformed(ActionEvent ae) {
-        boolean partialCharacterInstantiation = MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION;
+        //The character instantiation of the story might be restricted in this step when the ACAS III contexts are employed
+        Boolean partialCharacterInstantiation = story.overridePartialCharacterInstantiation(story.isPartialCharacterInstantiationEnabled());
         //Obtain the character's context in the current story
         List<Avatar> characters = story.getCharacters();
-        //Obtain the available atoms for each context
-        Collection<AtomSimilarityResult> availableAtoms = EngagementUtils.obtainAvailableAtoms(characters);
+        //Obtain the available atoms for each context, they are compared only when the previous ones fail
+        Iterator<AtomSimilarityResult> availableAtoms = EngagementUtils.iterateAvailableAtoms(story, characters);
         //Apply the most suitable action picked from an atom
         boolean actionAdded = applyActionFromAtoms(availableAtoms);
         //Restore the parameter value for character instantiation
-        MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION = partialCharacterInstantiation;
+        story.overridePartialCharacterInstantiation(partialCharacterInstantiation);
         
         if (!actionAdded) {
             story.setImpasseDetected(true);
@@ -54,6 +55,16 @@ public class EngagementAction extends AbstractAction{
      * @return 
      */
     public boolean applyActionFromAtoms(Collection<AtomSimilarityResult> availableAtoms) {
+        return applyActionFromAtoms(availableAtoms.iterator());
+    }
+    
+    /**
+     * Try to use every action available in the atoms that matched the given context.<br>
+     * The atoms are requested from the iterator until one of them produces a valid action
+     * @param availableAtoms
+     * @return 
+     */
+    public boolean applyActionFromAtoms(Iterator<AtomSimilarityResult> availableAtoms) {
         boolean actionAdded = false;
         Action action = null;
         
@@ -61,7 +72,8 @@ public class EngagementAction extends AbstractAction{
         
         //Take each atom and try to instantiate an action associated to each one of them taken in descending order
         //in accordance to the similarity with the context
-        for (AtomSimilarityResult atomResult : availableAtoms) {
+        while (availableAtoms.hasNext()) {
+            AtomSimilarityResult atomResult = availableAtoms.next();
             Logger.getGlobal().log(Level.FINE, "Attempting {0}", atomResult.getAtom());
             List<Action> nextActions = atomResult.getAtom().getNextActions();
             int size = nextActions.size();
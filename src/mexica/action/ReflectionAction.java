@@ -38,7 +38,7 @@ public class ReflectionAction extends AbstractAction{
     private EndOfStoryAnalyzer eosAnalyzer;
     private ImpasseAnalyzer impasseAnalyzer;
     private boolean impasseDetected;
-    private boolean illogicalActions;
+    private Boolean illogicalActions;
     
     public ReflectionAction(Story story) {
         random = new Random();
@@ -48,8 +48,7 @@ public class ReflectionAction extends AbstractAction{
         eosAnalyzer = new EndOfStoryAnalyzer();
         impasseAnalyzer = new ImpasseAnalyzer();
         this.story = story;
-        illogicalActions = MexicaParameters.ENABLE_ILLOGICAL_ACTIONS;
-        MexicaParameters.ENABLE_ILLOGICAL_ACTIONS = true;
+        illogicalActions = story.overrideIllogicalActions(true);
     }
 
     /**
@@ -58,7 +57,7 @@ public class ReflectionAction extends AbstractAction{
      */
     @Override
     public void actionPerformed(ActionEvent ae) {
-        MexicaParameters.ENABLE_ILLOGICAL_ACTIONS = true;
+        story.overrideIllogicalActions(true);
         if (impasseDetected) {
             if (!attempToBreakImpasse()) {
                 story.getGuidelines().addGuideline(Guideline.endStory, "Impasse");
@@ -86,7 +85,7 @@ public class ReflectionAction extends AbstractAction{
             }
         }
         //Reset the state of the illogical actions
-        MexicaParameters.ENABLE_ILLOGICAL_ACTIONS = illogicalActions;
+        story.overrideIllogicalActions(illogicalActions);
         
         if (story.getGuidelines().canTerminate()) {
             StoryLog.addMessage(story, "End of story, unbreakeable impasse");
@@ -190,7 +189,7 @@ public class ReflectionAction extends AbstractAction{
      * Determine if the story can be finished after this step.
      */
     public void performFinalAnalysis() {
-        MexicaParameters.ENABLE_ILLOGICAL_ACTIONS = true;
+        story.overrideIllogicalActions(true);
         
         tensionAnalyzer.analyzeGuidelines(story);
         if (MexicaParameters.ENABLE_SOCIAL_ANALYSIS)
@@ -198,7 +197,7 @@ public class ReflectionAction extends AbstractAction{
         //noveltyAnalyzer.analyzeGuidelines(story);
         eosAnalyzer.analyzeStory(story, impasseDetected);
         
-        MexicaParameters.ENABLE_ILLOGICAL_ACTIONS = illogicalActions;
+        story.overrideIllogicalActions(illogicalActions);
     }
 
     public boolean getImpasseDetected() {
@@ -4,7 +4,6 @@ import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import mexica.CharacterName;
-import mexica.MexicaParameters;
 import mexica.context.AtomSimilarityResult;
 import mexica.core.Action;
 import mexica.core.Position;
@@ -29,8 +28,7 @@ public class MexicaSocialAPI {
         Story story = new Story();
         story.setDefaultPosition(defaultPosition);
         
-        boolean storyExceptions = MexicaParameters.ENABLE_STORY_EXCEPTIONS;
-        MexicaParameters.ENABLE_STORY_EXCEPTIONS = false;
+        story.overrideStoryExceptions(false);
         for (ActionInstantiated action : storyActions) {
             try {
                 story.addAction(action.getAction(), action.getCharactersList().toArray(new CharacterName[0]));
@@ -38,7 +36,7 @@ public class MexicaSocialAPI {
                 Logger.getGlobal().log(Level.SEVERE, ex.getMessage());
             }
         }
-        MexicaParameters.ENABLE_STORY_EXCEPTIONS = storyExceptions;
+        story.overrideStoryExceptions(null);
         return story;
     }
     
@@ -74,11 +72,10 @@ public class MexicaSocialAPI {
         else
             story.getGuidelines().addGuideline(Guideline.notBreakSocialNorm);
         
-        boolean partialCharacterInstantiation = MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION;
-        Collection<AtomSimilarityResult> availableAtoms = EngagementUtils.obtainAvailableAtoms(story.getAvatarFactory().getActiveCharacters());
+        Collection<AtomSimilarityResult> availableAtoms = EngagementUtils.obtainAvailableAtoms(story, story.getAvatarFactory().getActiveCharacters());
         List<ActionInstantiated> actions = EngagementUtils.getActionsFromAtoms(story, availableAtoms);
         //Restore the parameter value for character instantiation
-        MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION = partialCharacterInstantiation;
+        story.overridePartialCharacterInstantiation(null);
         
         return actions;
     }
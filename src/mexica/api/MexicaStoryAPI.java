@@ -5,6 +5,7 @@ import java.util.logging.Logger;
 import javax.swing.AbstractAction;
 import mexica.CharacterName;
 import mexica.MexicaRepository;
+import mexica.action.BeamSearchAction;
 import mexica.action.CreateStoryAction;
 import mexica.action.ERStepAction;
 import mexica.story.ActionInstantiated;
@@ -25,6 +26,37 @@ public class MexicaStoryAPI {
     }
     
     public Story createStory(ActionInstantiated initialAction) {
+        Story story = createInitialStory(initialAction);
+        CreateStoryAction action = new CreateStoryAction(story);
+        
+        action.actionPerformed(null);
+        return story;
+    }
+    
+    /**
+     * Creates a story keeping the best partial stories in each E-R cycle, see BeamSearchAction
+     * @param initialAction
+     * @return The best story found
+     */
+    public Story createStoryWithBeamSearch(ActionInstantiated initialAction) {
+        Story story = createInitialStory(initialAction);
+        BeamSearchAction action = new BeamSearchAction(story);
+        
+        action.actionPerformed(null);
+        return action.getStory();
+    }
+    
+    /**
+     * Creates a story with a random initial action keeping the best partial stories in each E-R cycle
+     * @return The best story found
+     */
+    public Story createStoryWithBeamSearch() {
+        Story story = new Story();
+        ActionInstantiated action = MexicaAPI.obtainRandomAction(story);
+        return createStoryWithBeamSearch(action);
+    }
+    
+    private Story createInitialStory(ActionInstantiated initialAction) {
         Story story = new Story();
         story.setDefaultPosition(MexicaAPI.obtainRandomPosition());
         boolean validAction = false;
@@ -40,9 +72,6 @@ public class MexicaStoryAPI {
         
         StoryLog.addMessage(story, "Initial action: " + initialAction);
         StoryLog.addMessage(story, "Default location: " + story.getDefaultPosition().name());
-        CreateStoryAction action = new CreateStoryAction(story);
-        
-        action.actionPerformed(null);
         return story;
     }
     
@@ -6,6 +6,7 @@ import mexica.core.Condition;
 import mexica.social.ConditionStatus;
 import subgraph.IEdge;
 import subgraph.INode;
+import subgraph.LabelCode;
 
 /**
  *
@@ -15,6 +16,7 @@ public class ConditionEdge implements IEdge{
     private Condition condition;
     private INode source, target;
     private String label;
+    private int labelCode;
     
     public ConditionEdge(Condition condition, INode source, INode target) {
         setCondition(condition);
@@ -26,6 +28,14 @@ public class ConditionEdge implements IEdge{
     public String getLabel() {
         return label;
     }
+    
+    /**
+     * @return The compiled code of the label
+     * @see LabelCode
+     */
+    public int getLabelCode() {
+        return labelCode;
+    }
 
     @Override
     public INode getSource() {
@@ -64,7 +74,17 @@ public class ConditionEdge implements IEdge{
      */
     public final void setCondition(Condition condition) {
         this.condition = condition;
-        label = ConditionStatus.obtainAbbreviation(condition.getStatus());
+        label = obtainLabel(condition);
+        labelCode = LabelCode.compile(label);
+    }
+    
+    /**
+     * Obtains the label employed to represent the given condition inside a graph
+     * @param condition
+     * @return 
+     */
+    public static String obtainLabel(Condition condition) {
+        String label = ConditionStatus.obtainAbbreviation(condition.getStatus());
         switch (condition.getConditionType()) {
             case Emotion: 
                 label += EmotionType.getEmotionValue(condition.getEmotion()) + " (" + condition.getIntensityAsString() + ")";
@@ -75,6 +95,7 @@ public class ConditionEdge implements IEdge{
             default:
                 label = "UNDEF";
         }
+        return label;
     }
     
     @Override
@@ -7,7 +7,10 @@ import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.visualization.BasicVisualizationServer;
 import edu.uci.ics.jung.visualization.renderers.Renderer;
 import java.awt.*;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import mexica.CharacterName;
 import mexica.core.Condition;
 import mexica.core.EmotionType;
 import mexica.core.Tension;
@@ -21,14 +24,24 @@ import subgraph.*;
  * @author Ivan Guerrero
  */
 public class ContextBuilder {
+    /** Nodes shared by all the context graphs, one for each character */
+    private static final Map<CharacterName, Element> characterElements;
+    
+    static {
+        characterElements = new EnumMap<>(CharacterName.class);
+        for (CharacterName name : CharacterName.values()) {
+            characterElements.put(name, new Element(name));
+        }
+    }
+    
     public static BasicVisualizationServer<INode, IEdge> getVisualizationElement(List<ConditionInstantiated> context) {
-        Layout<INode, IEdge> layout = new CircleLayout<>(generateGraphFromContext(context));
+        Layout<INode, IEdge> layout = new CircleLayout<>(generateVisualGraphFromContext(context));
         layout.setSize(new Dimension(300,300));
         return getVisualizationElementFromLayout(layout);
     }
     
     public static BasicVisualizationServer<INode, IEdge> getVisualizationElement(Atom atom) {
-        Layout<INode, IEdge> layout = new CircleLayout<>(generateGraphFromAtom(atom));
+        Layout<INode, IEdge> layout = new CircleLayout<>(generateVisualGraphFromAtom(atom));
         layout.setSize(new Dimension(300,300));
         return getVisualizationElementFromLayout(layout);
     }
@@ -93,7 +106,49 @@ public class ContextBuilder {
         return vv;
     }
     
-    public static Graph<INode, IEdge> generateGraphFromAtom(Atom atom) {
+    /**
+     * Generates the graph employed to compare the given atom
+     * @param atom
+     * @return 
+     */
+    public static LabeledGraph generateGraphFromAtom(Atom atom) {
+        LabeledGraph.Builder builder = new LabeledGraph.Builder(atom.getTensions().size() + atom.getEmotions().size());
+        
+        for (Tension t : atom.getTensions()) {
+            builder.addEdge(new Element(t.getCharacterB()), new Element(t.getCharacterA()), ConditionEdge.obtainLabel(t));
+        }
+        
+        for (Condition e : atom.getEmotions()) {
+            builder.addEdge(new Element(e.getCharacterA()), new Element(e.getCharacterB()), ConditionEdge.obtainLabel(e));
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * Generates the graph employed to compare the given context
+     * @param context
+     * @return 
+     */
+    public static LabeledGraph generateGraphFromContext(List<ConditionInstantiated> context) {
+        LabeledGraph.Builder builder = new LabeledGraph.Builder(context.size());
+        
+        for (ConditionInstantiated cond : context) {
+            switch (cond.getCondition().getConditionType()) {
+                case Tension:
+                    builder.addEdge(characterElements.get(cond.getCharacterB()), characterElements.get(cond.getCharacterA()), 
+                                    ConditionEdge.obtainLabel(cond.getCondition()));
+                    break;
+                case Emotion:
+                    builder.addEdge(characterElements.get(cond.getCharacterA()), characterElements.get(cond.getCharacterB()), 
+                                    ConditionEdge.obtainLabel(cond.getCondition()));
+                    break;
+            }
+        }
+        return builder.build();
+    }
+    
+    private static Graph<INode, IEdge> generateVisualGraphFromAtom(Atom atom) {
         Graph<INode, IEdge> graph = new DirectedSparseMultigraph<>();
         
         for (Tension t : atom.getTensions()) {
@@ -113,7 +168,7 @@ public class ContextBuilder {
         return graph;
     }
 
-    public static Graph<INode, IEdge> generateGraphFromContext(List<ConditionInstantiated> context) {
+    private static Graph<INode, IEdge> generateVisualGraphFromContext(List<ConditionInstantiated> context) {
         Graph<INode, IEdge> graph = new DirectedSparseMultigraph<>();
         Element source, target;
         ConditionEdge edge;
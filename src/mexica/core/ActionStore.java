@@ -18,10 +18,16 @@ public class ActionStore {
     private SpecialActionStore specialActionsStore;
     /** Any action that has as poscondition to follow a character */
     private List<Action> changePositionActions;
+    /** Positions in the actions list of the actions with an emotional poscondition, grouped by emotion type and intensity sign */
+    private Map<List<Object>, BitSet> emotionIndex;
+    /** Positions in the actions list of the actions with each type of tension as poscondition */
+    private Map<TensionType, BitSet> tensionIndex;
     
     public ActionStore() {
         actions = new ArrayList<>();
         changePositionActions = new ArrayList<>();
+        emotionIndex = new HashMap<>();
+        tensionIndex = new EnumMap<>(TensionType.class);
     }
     
     /**
@@ -39,6 +45,33 @@ public class ActionStore {
     public void addAction(Action currentAction) {
         currentAction.setNewAction(false);
         actions.add(currentAction);
+        indexPosconditions(currentAction, actions.size()-1);
+    }
+    
+    /**
+     * Adds the posconditions of the action to the indexes employed by getActionList(Condition).<br>
+     * Emotions with proportional intensity are not indexed, since they never satisfy a condition
+     * @param action
+     * @param position Position of the action in the actions list
+     */
+    private void indexPosconditions(Action action, int position) {
+        for (Condition cond : action.getPosconditions()) {
+            if (cond.getConditionType() == ConditionType.Emotion && cond.getIntensity() != MexicaParameters.PROPORTIONAL_INTENSITY)
+                addToIndex(emotionIndex, Arrays.<Object>asList(cond.getEmotion(), Integer.signum(cond.getIntensity())), position);
+        }
+        for (Condition cond : action.getTensions()) {
+            if (cond.getTension() != null)
+                addToIndex(tensionIndex, cond.getTension(), position);
+        }
+    }
+    
+    private static <K> void addToIndex(Map<K, BitSet> index, K key, int position) {
+        BitSet positions = index.get(key);
+        if (positions == null) {
+            positions = new BitSet();
+            index.put(key, positions);
+        }
+        positions.set(position);
     }
     public Action getAction(String actionName) {
         return getAction(actionName, false);
@@ -149,39 +182,77 @@ public class ActionStore {
      * @return A list of actions that can fulfill the condition with its posconditions
      */
     public List<Action> getActionList(Condition condition) {
+        if (condition == null)
+            return new ArrayList<>(actions);
+        
         List<Action> list = new ArrayList<>();
         ConditionInstantiated c1 = new ConditionInstantiated(condition, CharacterName.Any_Character, CharacterName.Any_Character);
         
-        for (Action act : actions) {
-            if (condition != null) {
-                if (condition.getConditionType().equals(ConditionType.Emotion)) {
-                    for (Condition cond : act.getPosconditions()) {
-                        ConditionInstantiated c2 = new ConditionInstantiated(cond, CharacterName.Any_Character, CharacterName.Any_Character);
-                        ComparisonResult res = ConditionComparer.compare(c2, c1);
-                        if (res.isEqualOrEquivalent(false, true, false)) {
-                            list.add(act);
-                            break;
-                        }
+        //Only the actions with a related poscondition are compared
+        BitSet candidates = obtainCandidates(condition);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i+1)) {
+            Action act = actions.get(i);
+            if (condition.getConditionType().equals(ConditionType.Emotion)) {
+                for (Condition cond : act.getPosconditions()) {
+                    ConditionInstantiated c2 = new ConditionInstantiated(cond, CharacterName.Any_Character, CharacterName.Any_Character);
+                    ComparisonResult res = ConditionComparer.compare(c2, c1);
+                    if (res.isEqualOrEquivalent(false, true, false)) {
+                        list.add(act);
+                        break;
                     }
                 }
-                else if (condition.getConditionType().equals(ConditionType.Tension)) {
-                    for (Condition cond : act.getTensions()) {
-                        ConditionInstantiated c2 = new ConditionInstantiated(cond, CharacterName.Any_Character, CharacterName.Any_Character);
-                        ComparisonResult res = ConditionComparer.compare(c2, c1);
-                        if (res.isEqualOrEquivalent(false, false, false)) {
-                            list.add(act);
-                            break;
-                        }
+            }
+            else if (condition.getConditionType().equals(ConditionType.Tension)) {
+                for (Condition cond : act.getTensions()) {
+                    ConditionInstantiated c2 = new ConditionInstantiated(cond, CharacterName.Any_Character, CharacterName.Any_Character);
+                    ComparisonResult res = ConditionComparer.compare(c2, c1);
+                    if (res.isEqualOrEquivalent(false, false, false)) {
+                        list.add(act);
+                        break;
                     }
                 }
             }
-            else {
-                list.add(act);
-            }
         }
         return list;
     }
     
+    /**
+     * Obtains the positions of the actions whose posconditions can satisfy the given condition.<br>
+     * An emotion is satisfied by the same emotion type (or any emotion) with an intensity of the same sign,
+     * a tension is satisfied by the same type of tension
+     * @param condition
+     * @return The positions of the candidate actions in the actions list
+     */
+    private BitSet obtainCandidates(Condition condition) {
+        BitSet candidates = new BitSet();
+        if (condition.getConditionType() == ConditionType.Emotion) {
+            int intensity = condition.getIntensity();
+            if (intensity == MexicaParameters.PROPORTIONAL_INTENSITY)
+                return candidates;
+            EmotionType emotion = condition.getEmotion();
+            for (Map.Entry<List<Object>, BitSet> entry : emotionIndex.entrySet()) {
+                Object type = entry.getKey().get(0);
+                int sign = (Integer)entry.getKey().get(1);
+                boolean relatedEmotion;
+                if (emotion == EmotionType.getAnyEmotion())
+                    relatedEmotion = type != EmotionType.getSocialEmotion();
+                else if (emotion == EmotionType.getSocialEmotion())
+                    relatedEmotion = type == emotion;
+                else
+                    relatedEmotion = type == emotion || type == EmotionType.getAnyEmotion();
+                
+                if (relatedEmotion && (intensity == 0 || sign == Integer.signum(intensity)))
+                    candidates.or(entry.getValue());
+            }
+        }
+        else if (condition.getConditionType() == ConditionType.Tension && condition.getTension() != null) {
+            BitSet positions = tensionIndex.get(condition.getTension());
+            if (positions != null)
+                candidates.or(positions);
+        }
+        return candidates;
+    }
+    
     public void calculateNoveltyValues() {
         //Determine the average number of times an action has been used in previous stories
         double averageUseOfActions = 0;
@@ -0,0 +1,199 @@
+package mexica.engagement;
+
+import java.util.*;
+import mexica.MexicaParameters;
+import mexica.context.AtomSimilarityResult;
+import mexica.context.ContextBuilder;
+import mexica.story.Avatar;
+import mexica.story.ConditionInstantiated;
+import subgraph.LabeledGraph;
+import subgraph.Solution;
+
+/**
+ * Evaluates the ACAS tiers (ACAS, ACAS II and ACAS III) of a group of contexts in a single pass over the atoms.<br>
+ * The result is the same as analyzing each tier only when the previous ones retrieved no atoms:
+ * the cells are visited once, comparing each atom against every tier still required, and a tier stops
+ * being analyzed as soon as a previous tier retrieves an atom.<br>
+ * When the reduced context of a tier is equal to the context of a previous tier, the comparisons are shared.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+public class AcasCascade {
+    private List<Avatar> owners;
+    private AtomsStore atomStore;
+    private List<Tier> tiers;
+    private int selectedTier;
+
+    /**
+     * @param owners Avatars owners of the contexts of each tier
+     * @param atomStore Store with the available atoms
+     */
+    public AcasCascade(List<Avatar> owners, AtomsStore atomStore) {
+        this.owners = owners;
+        this.atomStore = atomStore;
+        tiers = new ArrayList<>();
+        selectedTier = -1;
+    }
+
+    /**
+     * Adds a tier to be analyzed when the previous tiers don't retrieve any atom
+     * @param contexts Known facts of each owner for this tier
+     * @param minimumSimilarity Minimum similarity value for an atom to be retrieved in this tier
+     * @return The index of the tier
+     */
+    public int addTier(List<List<ConditionInstantiated>> contexts, int minimumSimilarity) {
+        Tier tier = new Tier(tiers.size(), contexts, minimumSimilarity);
+        tiers.add(tier);
+        return tier.index;
+    }
+
+    /**
+     * @return The index of the tier employed to retrieve the atoms, -1 if no atoms were retrieved
+     */
+    public int getSelectedTier() {
+        return selectedTier;
+    }
+
+    /**
+     * Obtains the atoms similar to the contexts of the first tier retrieving any atom
+     * @return List of atom's comparison result whith similarity percentage, sorted by owner and cell
+     */
+    public Collection<AtomSimilarityResult> evaluate() {
+        selectedTier = -1;
+        int lastTier = tiers.size() - 1;
+
+        for (Cell cell : atomStore.getCells()) {
+            List<LabeledGraph> graphs = new ArrayList<>();
+            List<Atom> atoms = new ArrayList<>();
+            List<Integer> thresholds = new ArrayList<>();
+            List<Map<Atom, Solution>> targets = new ArrayList<>();
+
+            //Obtains the comparisons required by every tier still analyzed
+            for (int k=0; k<=lastTier; k++) {
+                Tier tier = tiers.get(k);
+                for (int i=0; i<owners.size(); i++) {
+                    Tier shared = tier.sharedTiers[i];
+                    Map<Atom, Solution> solutions = shared.solutions.get(i);
+                    for (Atom atom : tier.getCandidates(i, cell)) {
+                        if (solutions.containsKey(atom))
+                            continue;
+                        //The comparison is performed with the lowest similarity of the tiers sharing it
+                        solutions.put(atom, null);
+                        graphs.add(shared.graphs.get(i));
+                        atoms.add(atom);
+                        thresholds.add(shared.sharedSimilarity[i]);
+                        targets.add(solutions);
+                    }
+                }
+            }
+
+            int[] minimumSimilarities = new int[thresholds.size()];
+            for (int c=0; c<minimumSimilarities.length; c++) {
+                minimumSimilarities[c] = thresholds.get(c);
+            }
+            Solution[] results = AtomRetrievalTask.compare(graphs.toArray(new LabeledGraph[0]), atoms.toArray(new Atom[0]),
+                                                           minimumSimilarities, MexicaParameters.ATOM_RETRIEVAL_PARALLELISM);
+            for (int c=0; c<results.length; c++) {
+                targets.get(c).put(atoms.get(c), results[c]);
+            }
+
+            //The tiers following the first tier with available atoms are not required anymore
+            for (int k=0; k<=lastTier; k++) {
+                if (tiers.get(k).hasAvailableAtoms(owners.size(), cell)) {
+                    lastTier = k;
+                    break;
+                }
+            }
+        }
+
+        for (Tier tier : tiers) {
+            Collection<AtomSimilarityResult> result = tier.obtainResults();
+            if (!result.isEmpty()) {
+                selectedTier = tier.index;
+                return result;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Contexts and comparison results of a tier
+     */
+    private class Tier {
+        private int index;
+        private int minimumSimilarity;
+        private List<LabeledGraph> graphs;
+        private List<Map<Cell, List<Atom>>> candidates;
+        /** Solutions obtained for each owner's context */
+        private List<Map<Atom, Solution>> solutions;
+        /** For each owner, the first tier with the same context */
+        private Tier[] sharedTiers;
+        /** For each owner, the minimum similarity employed in the comparisons shared with other tiers */
+        private int[] sharedSimilarity;
+
+        Tier(int index, List<List<ConditionInstantiated>> contexts, int minimumSimilarity) {
+            this.index = index;
+            this.minimumSimilarity = minimumSimilarity;
+            graphs = new ArrayList<>();
+            candidates = new ArrayList<>();
+            solutions = new ArrayList<>();
+            sharedTiers = new Tier[owners.size()];
+            sharedSimilarity = new int[owners.size()];
+            for (int i=0; i<owners.size(); i++) {
+                LabeledGraph contextGraph = ContextBuilder.generateGraphFromContext(contexts.get(i));
+                graphs.add(contextGraph);
+                candidates.add(atomStore.obtainCandidates(contextGraph, minimumSimilarity));
+                solutions.add(new HashMap<Atom, Solution>());
+                sharedTiers[i] = this;
+                sharedSimilarity[i] = minimumSimilarity;
+                for (Tier previous : tiers) {
+                    if (previous.sharedTiers[i] == previous && previous.graphs.get(i).hasSameEdges(contextGraph)) {
+                        sharedTiers[i] = previous;
+                        previous.sharedSimilarity[i] = Math.min(previous.sharedSimilarity[i], minimumSimilarity);
+                        break;
+                    }
+                }
+            }
+        }
+
+        List<Atom> getCandidates(int owner, Cell cell) {
+            List<Atom> list = candidates.get(owner).get(cell);
+            return (list != null) ? list : Collections.<Atom>emptyList();
+        }
+
+        Solution getSolution(int owner, Atom atom) {
+            return sharedTiers[owner].solutions.get(owner).get(atom);
+        }
+
+        boolean hasAvailableAtoms(int ownerCount, Cell cell) {
+            for (int i=0; i<ownerCount; i++) {
+                for (Atom atom : getCandidates(i, cell)) {
+                    if (Cell.isAvailable(atom, getSolution(i, atom), minimumSimilarity))
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Obtains the available atoms in the same order employed by EngagementUtils.analyzeSimilarity
+         * @return
+         */
+        Collection<AtomSimilarityResult> obtainResults() {
+            Collection<AtomSimilarityResult> result = new ArrayList<>();
+            for (int i=0; i<owners.size(); i++) {
+                for (Cell cell : atomStore.getCells()) {
+                    Map<Atom, Solution> similarAtoms = new HashMap<>();
+                    for (Atom atom : getCandidates(i, cell)) {
+                        Solution solution = getSolution(i, atom);
+                        if (Cell.isAvailable(atom, solution, minimumSimilarity))
+                            similarAtoms.put(atom, solution);
+                    }
+                    for (Atom atom : similarAtoms.keySet()) {
+                        result.add(new AtomSimilarityResult(atom, similarAtoms.get(atom), owners.get(i)));
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
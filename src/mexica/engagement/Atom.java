@@ -31,6 +31,8 @@ public class Atom {
     /** Determines the cluster to which the atom belongs */
     private int clusterID;
     private Cluster.ClusterType clusterType;    
+    /** Structure employed to compare the atom, compiled by the AtomsStore */
+    private AtomGraph matchGraph;
     /** Determines the type of node according to the number of connections with similar atoms */
     public enum ConnectivityClass {UNDEFINED, ISOLATED, REGULAR, FOCAL};
     
@@ -370,4 +372,15 @@ public class Atom {
     public void setClusterType(Cluster.ClusterType type) {
         this.clusterType = type;
     }
+    
+    /**
+     * @return The structure employed to compare the atom, or null if the atom hasn't been compiled by an AtomsStore
+     */
+    public AtomGraph getMatchGraph() {
+        return matchGraph;
+    }
+    
+    void setMatchGraph(AtomGraph matchGraph) {
+        this.matchGraph = matchGraph;
+    }
 }
\ No newline at end of file
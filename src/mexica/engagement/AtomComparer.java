@@ -1,12 +1,10 @@
 package mexica.engagement;
 
-import edu.uci.ics.jung.graph.Graph;
 import java.util.*;
 import mexica.context.ContextBuilder;
 import mexica.core.*;
 import mexica.story.ConditionInstantiated;
-import subgraph.IEdge;
-import subgraph.INode;
+import subgraph.LabeledGraph;
 import subgraph.SimilarityEvaluator;
 import subgraph.Solution;
 
@@ -23,11 +21,37 @@ public class AtomComparer {
      * @return 
      */
     public static Solution compare(List<ConditionInstantiated> context, Atom atom) {
-        Graph<INode, IEdge> contextGraph = ContextBuilder.generateGraphFromContext(context);
-        Graph<INode, IEdge> atomGraph = ContextBuilder.generateGraphFromAtom(atom);
+        return compare(context, atom, 0);
+    }
+    
+    /**
+     * Analyzes how much of the context is present in the atom
+     * @param context Context to analyze
+     * @param atom Atom to compare against
+     * @param minimumSimilarity Minimum similarity value expected
+     * @return The solution found, or null if the atom cannot reach the minimum similarity
+     */
+    public static Solution compare(List<ConditionInstantiated> context, Atom atom, int minimumSimilarity) {
+        LabeledGraph contextGraph = ContextBuilder.generateGraphFromContext(context);
+        return compare(contextGraph, atom, minimumSimilarity);
+    }
+    
+    /**
+     * Analyzes how much of the context is present in the atom
+     * @param contextGraph Graph of the context to analyze
+     * @param atom Atom to compare against
+     * @param minimumSimilarity Minimum similarity value expected
+     * @return The solution found, or null if the atom cannot reach the minimum similarity
+     */
+    public static Solution compare(LabeledGraph contextGraph, Atom atom, int minimumSimilarity) {
+        //Compiled atoms reuse the comparisons against equivalent contexts
+        AtomGraph matchGraph = atom.getMatchGraph();
+        if (matchGraph != null)
+            return SimilarityCache.getInstance().compare(contextGraph, matchGraph, minimumSimilarity);
+        LabeledGraph atomGraph = ContextBuilder.generateGraphFromAtom(atom);
         
         SimilarityEvaluator evaluator = new SimilarityEvaluator();
-        Solution result = evaluator.evaluate(atomGraph, contextGraph);
+        Solution result = evaluator.evaluate(atomGraph, contextGraph, minimumSimilarity);
         
         return result;
     }
@@ -39,8 +63,8 @@ public class AtomComparer {
      * @return 
      */
     public static Solution compare(Atom atom, Atom atom2) {
-        Graph<INode, IEdge> atomGraph = ContextBuilder.generateGraphFromAtom(atom);
-        Graph<INode, IEdge> atom2Graph = ContextBuilder.generateGraphFromAtom(atom2);
+        LabeledGraph atomGraph = obtainGraph(atom);
+        LabeledGraph atom2Graph = obtainGraph(atom2);
         
         SimilarityEvaluator evaluator = new SimilarityEvaluator();
         Solution result = evaluator.evaluate(atomGraph, atom2Graph);
@@ -55,8 +79,8 @@ public class AtomComparer {
      * @return 
      */
     public static Solution compareInclusion(Atom atom, Atom atom2) {
-        Graph<INode, IEdge> atomGraph = ContextBuilder.generateGraphFromAtom(atom);
-        Graph<INode, IEdge> atom2Graph = ContextBuilder.generateGraphFromAtom(atom2);
+        LabeledGraph atomGraph = obtainGraph(atom);
+        LabeledGraph atom2Graph = obtainGraph(atom2);
         
         SimilarityEvaluator evaluator = new SimilarityEvaluator();
         Solution result = evaluator.evaluateGraphs(atomGraph, atom2Graph);
@@ -64,6 +88,18 @@ public class AtomComparer {
         return result;
     }
     
+    /**
+     * Obtains the graph of the given atom, generating it only when the atom hasn't been compiled
+     * @param atom
+     * @return 
+     */
+    private static LabeledGraph obtainGraph(Atom atom) {
+        AtomGraph matchGraph = atom.getMatchGraph();
+        if (matchGraph != null)
+            return matchGraph.getGraph();
+        return ContextBuilder.generateGraphFromAtom(atom);
+    }
+    
     /**
      * Determines if the two given atoms are equal or not.<br>
      * Two atoms are considered equal when all their emotions and tensions are equal including their characters
@@ -0,0 +1,59 @@
+package mexica.engagement;
+
+import java.util.Arrays;
+import mexica.context.ContextBuilder;
+import subgraph.LabeledGraph;
+
+/**
+ * Immutable structure employed to compare an atom against a context.<br>
+ * Stores the atom's graph, the number of edges per label code (sorted by code) and the total number of edges.
+ * It's compiled by the AtomsStore, so the atom's graph is not generated on every comparison.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+public class AtomGraph {
+    private final LabeledGraph graph;
+    private final int[] labelCodes;
+    private final int[] labelCounts;
+
+    public AtomGraph(Atom atom) {
+        this(ContextBuilder.generateGraphFromAtom(atom));
+    }
+
+    public AtomGraph(LabeledGraph graph) {
+        this.graph = graph;
+        int buckets = graph.getBucketCount();
+        //Sorts the buckets by label code
+        labelCodes = new int[buckets];
+        for (int b=0; b<buckets; b++) {
+            labelCodes[b] = graph.getBucketCode(b);
+        }
+        Arrays.sort(labelCodes);
+        labelCounts = new int[buckets];
+        for (int b=0; b<buckets; b++) {
+            int pos = Arrays.binarySearch(labelCodes, graph.getBucketCode(b));
+            labelCounts[pos] = graph.getBucketEdges(b).length;
+        }
+    }
+
+    public LabeledGraph getGraph() {
+        return graph;
+    }
+
+    public int getEdgeCount() {
+        return graph.getEdgeCount();
+    }
+
+    /**
+     * @return The distinct label codes of the atom's edges in ascending order
+     */
+    public int[] getLabelCodes() {
+        return labelCodes;
+    }
+
+    /**
+     * @return The number of edges with each label code, in the same order as getLabelCodes()
+     */
+    public int[] getLabelCounts() {
+        return labelCounts;
+    }
+}
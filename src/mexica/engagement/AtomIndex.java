@@ -0,0 +1,149 @@
+package mexica.engagement;
+
+import java.util.*;
+import subgraph.LabelCode;
+import subgraph.LabeledGraph;
+import subgraph.Solution;
+
+/**
+ * Index of the atoms by the label codes of their edges.<br>
+ * Employed to obtain an upper bound of the number of edges that can be matched between a context and each atom:
+ * for each label code of the atom, no more edges than the context edges with a compatible label can be matched.
+ * Only the atoms whose bound can reach the requested similarity need to be compared.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+class AtomIndex {
+    private List<Atom> atoms;
+    private List<Cell> atomCells;
+    /** For each label code, the atoms containing it and the number of edges with that label */
+    private Map<Integer, Postings> postings;
+
+    AtomIndex() {
+        atoms = new ArrayList<>();
+        atomCells = new ArrayList<>();
+        postings = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds the given compiled atom to the index
+     * @param atom
+     * @param cell The cell containing the atom
+     */
+    void add(Atom atom, Cell cell) {
+        int position = atoms.size();
+        atoms.add(atom);
+        atomCells.add(cell);
+        AtomGraph matchGraph = atom.getMatchGraph();
+        int[] codes = matchGraph.getLabelCodes();
+        int[] counts = matchGraph.getLabelCounts();
+        for (int i=0; i<codes.length; i++) {
+            Postings list = postings.get(codes[i]);
+            if (list == null) {
+                list = new Postings();
+                postings.put(codes[i], list);
+            }
+            list.add(position, counts[i]);
+        }
+    }
+
+    int getAtomCount() {
+        return atoms.size();
+    }
+
+    /**
+     * Obtains the atoms that might reach the given similarity against the context
+     * @param contextGraph
+     * @param minimumSimilarity
+     * @return The candidate atoms grouped by cell
+     */
+    Map<Cell, List<Atom>> obtainCandidates(LabeledGraph contextGraph, int minimumSimilarity) {
+        Map<Cell, List<Atom>> candidates = new HashMap<>();
+        int contextEdges = contextGraph.getEdgeCount();
+        int[] bounds = new int[atoms.size()];
+        BitSet touched = new BitSet(atoms.size());
+
+        for (Map.Entry<Integer, Postings> entry : postings.entrySet()) {
+            int available = countCompatibleEdges(entry.getKey(), contextGraph);
+            if (available == 0)
+                continue;
+            Postings list = entry.getValue();
+            for (int k=0; k<list.size; k++) {
+                bounds[list.positions[k]] += Math.min(list.counts[k], available);
+                touched.set(list.positions[k]);
+            }
+        }
+
+        //Atoms without compatible labels can only reach a zero similarity, unless both graphs are empty
+        BitSet analyzed = touched;
+        if (minimumSimilarity <= 0 || contextEdges == 0) {
+            analyzed = new BitSet(atoms.size());
+            analyzed.set(0, atoms.size());
+        }
+        for (int i=analyzed.nextSetBit(0); i>=0; i=analyzed.nextSetBit(i+1)) {
+            int bound = Math.min(bounds[i], contextEdges);
+            int totalEdges = atoms.get(i).getMatchGraph().getEdgeCount() + contextEdges;
+            if (Solution.getSimilarity(bound, totalEdges) >= minimumSimilarity) {
+                List<Atom> list = candidates.get(atomCells.get(i));
+                if (list == null) {
+                    list = new ArrayList<>();
+                    candidates.put(atomCells.get(i), list);
+                }
+                list.add(atoms.get(i));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Obtains the maximum similarity the given compiled atom can reach against the context
+     * @param atom
+     * @param contextGraph
+     * @return 
+     */
+    static double getSimilarityBound(Atom atom, LabeledGraph contextGraph) {
+        AtomGraph matchGraph = atom.getMatchGraph();
+        int[] codes = matchGraph.getLabelCodes();
+        int[] counts = matchGraph.getLabelCounts();
+        int bound = 0;
+        for (int i=0; i<codes.length; i++) {
+            bound += Math.min(counts[i], countCompatibleEdges(codes[i], contextGraph));
+        }
+        bound = Math.min(bound, contextGraph.getEdgeCount());
+        return Solution.getSimilarity(bound, matchGraph.getEdgeCount() + contextGraph.getEdgeCount());
+    }
+
+    /**
+     * Counts the edges of the context whose label is compatible with the given atom label.<br>
+     * The relation is the same the SimilarityEvaluator employs in both directions when the atom is the first graph.
+     * @param atomCode
+     * @param contextGraph
+     * @return
+     */
+    private static int countCompatibleEdges(int atomCode, LabeledGraph contextGraph) {
+        int count = 0;
+        for (int b=0; b<contextGraph.getBucketCount(); b++) {
+            if (LabelCode.areCompatible(atomCode, contextGraph.getBucketCode(b), true))
+                count += contextGraph.getBucketEdges(b).length;
+        }
+        return count;
+    }
+
+    /**
+     * List of atom positions with the number of edges with a given label
+     */
+    private static class Postings {
+        private int[] positions = new int[4];
+        private int[] counts = new int[4];
+        private int size;
+
+        void add(int position, int count) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            positions[size] = position;
+            counts[size] = count;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package mexica.engagement;
+
+import java.util.*;
+import mexica.core.Condition;
+import mexica.core.Tension;
+
+/**
+ * Key of the emotions and tensions of an atom, independent of their order.<br>
+ * Two atoms have equal keys when AtomComparer.areEqual considers them equal: the same multiset of emotions
+ * (type, intensity and characters) and tensions (type and characters).
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+class AtomKey {
+    private final Map<List<Object>, Integer> emotions, tensions;
+    private final int hash;
+
+    AtomKey(Atom atom) {
+        emotions = new HashMap<>();
+        tensions = new HashMap<>();
+        for (Condition c : atom.getEmotions()) {
+            add(emotions, Arrays.<Object>asList(c.getEmotion(), c.getIntensity(), c.getCharacterA(), c.getCharacterB()));
+        }
+        for (Tension t : atom.getTensions()) {
+            add(tensions, Arrays.<Object>asList(t.getTension(), t.getCharacterA(), t.getCharacterB()));
+        }
+        hash = 31 * emotions.hashCode() + tensions.hashCode();
+    }
+
+    private static void add(Map<List<Object>, Integer> elements, List<Object> element) {
+        Integer count = elements.get(element);
+        elements.put(element, (count == null) ? 1 : count + 1);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof AtomKey) {
+            AtomKey key = (AtomKey)obj;
+            return hash == key.hash && emotions.equals(key.emotions) && tensions.equals(key.tensions);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,96 @@
+package mexica.engagement;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import subgraph.LabeledGraph;
+import subgraph.Solution;
+
+/**
+ * Fork/join task to compare a list of contexts against their candidate atoms.<br>
+ * Each comparison is independent, so the list is split in partitions analyzed in parallel.
+ * The result of each comparison is stored in the same position as the comparison,
+ * so the results can be merged in the sequential order.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+class AtomRetrievalTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    /** Maximum number of comparisons performed by a single task */
+    private static final int PARTITION_SIZE = 16;
+    private static ForkJoinPool pool;
+
+    private LabeledGraph[] contextGraphs;
+    private Atom[] atoms;
+    private Solution[] results;
+    private int[] minimumSimilarities;
+    private int from, to;
+
+    private AtomRetrievalTask(LabeledGraph[] contextGraphs, Atom[] atoms, Solution[] results, int[] minimumSimilarities, int from, int to) {
+        this.contextGraphs = contextGraphs;
+        this.atoms = atoms;
+        this.results = results;
+        this.minimumSimilarities = minimumSimilarities;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Compares each context graph against the atom in the same position
+     * @param contextGraphs
+     * @param atoms
+     * @param minimumSimilarity Minimum similarity value expected
+     * @param parallelism Number of threads employed for the comparisons
+     * @return The solution of each comparison (null if the atom cannot reach the minimum similarity)
+     */
+    static Solution[] compare(LabeledGraph[] contextGraphs, Atom[] atoms, int minimumSimilarity, int parallelism) {
+        int[] minimumSimilarities = new int[atoms.length];
+        Arrays.fill(minimumSimilarities, minimumSimilarity);
+        return compare(contextGraphs, atoms, minimumSimilarities, parallelism);
+    }
+
+    /**
+     * Compares each context graph against the atom in the same position
+     * @param contextGraphs
+     * @param atoms
+     * @param minimumSimilarities Minimum similarity value expected for each comparison
+     * @param parallelism Number of threads employed for the comparisons
+     * @return The solution of each comparison (null if the atom cannot reach its minimum similarity)
+     */
+    static Solution[] compare(LabeledGraph[] contextGraphs, Atom[] atoms, int[] minimumSimilarities, int parallelism) {
+        Solution[] results = new Solution[atoms.length];
+        AtomRetrievalTask task = new AtomRetrievalTask(contextGraphs, atoms, results, minimumSimilarities, 0, atoms.length);
+        if (parallelism > 1 && atoms.length > PARTITION_SIZE)
+            obtainPool(parallelism).invoke(task);
+        else
+            task.compute();
+        return results;
+    }
+
+    /**
+     * The pool is created again when the degree of parallelism changes
+     * @param parallelism
+     * @return
+     */
+    private static synchronized ForkJoinPool obtainPool(int parallelism) {
+        if (pool == null || pool.getParallelism() != parallelism) {
+            if (pool != null)
+                pool.shutdown();
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= PARTITION_SIZE) {
+            for (int i=from; i<to; i++) {
+                results[i] = AtomComparer.compare(contextGraphs[i], atoms[i], minimumSimilarities[i]);
+            }
+        }
+        else {
+            int middle = (from + to) / 2;
+            invokeAll(new AtomRetrievalTask(contextGraphs, atoms, results, minimumSimilarities, from, middle),
+                      new AtomRetrievalTask(contextGraphs, atoms, results, minimumSimilarities, middle, to));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package mexica.engagement;
+
+import java.util.*;
+import mexica.context.AtomSimilarityResult;
+import mexica.context.ContextBuilder;
+import mexica.story.Avatar;
+import mexica.story.ConditionInstantiated;
+import subgraph.LabeledGraph;
+import subgraph.Solution;
+
+/**
+ * Iterates the atoms similar to a group of contexts in descending order of similarity.<br>
+ * The candidates are sorted by the similarity bound obtained from the atoms index, and an atom is compared
+ * against its context only when its bound reaches the top of the queue. A compared atom is returned once its
+ * similarity is equal or higher than the bound of every pending candidate, so only the atoms actually
+ * requested (and the ones with a higher bound) are compared.<br>
+ * Atoms with the same similarity are returned by context, cell and atom order.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+public class AtomSimilarityIterator implements Iterator<AtomSimilarityResult> {
+    private PriorityQueue<Candidate> queue;
+    private int minimumSimilarity;
+    private AtomSimilarityResult nextResult;
+
+    /**
+     * @param owners Avatars owners of the given contexts
+     * @param contexts Known facts of each owner
+     * @param atomStore Store with the available atoms
+     * @param minimumSimilarity Minimum similarity value for an atom to be retrieved
+     */
+    public AtomSimilarityIterator(List<Avatar> owners, List<List<ConditionInstantiated>> contexts, AtomsStore atomStore, int minimumSimilarity) {
+        this.minimumSimilarity = minimumSimilarity;
+        queue = new PriorityQueue<>();
+        int position = 0;
+        for (int i=0; i<contexts.size(); i++) {
+            LabeledGraph contextGraph = ContextBuilder.generateGraphFromContext(contexts.get(i));
+            Map<Cell, List<Atom>> candidates = atomStore.obtainCandidates(contextGraph, minimumSimilarity);
+            for (Cell cell : atomStore.getCells()) {
+                if (!candidates.containsKey(cell))
+                    continue;
+                for (Atom atom : candidates.get(cell)) {
+                    //Atoms without next actions are never available
+                    if (atom.getNextActions().isEmpty())
+                        continue;
+                    double bound = AtomIndex.getSimilarityBound(atom, contextGraph);
+                    queue.add(new Candidate(owners.get(i), contextGraph, atom, bound, position++));
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextResult == null && !queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (candidate.solution != null) {
+                nextResult = new AtomSimilarityResult(candidate.atom, candidate.solution, candidate.owner);
+            }
+            else {
+                Solution solution = AtomComparer.compare(candidate.contextGraph, candidate.atom, minimumSimilarity);
+                if (Cell.isAvailable(candidate.atom, solution, minimumSimilarity)) {
+                    candidate.solution = solution;
+                    candidate.similarity = solution.getSimilarity();
+                    queue.add(candidate);
+                }
+            }
+        }
+        return nextResult != null;
+    }
+
+    @Override
+    public AtomSimilarityResult next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        AtomSimilarityResult result = nextResult;
+        nextResult = null;
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    /**
+     * Atom pending to be returned, sorted by its similarity (or its bound if it hasn't been compared)
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        private Avatar owner;
+        private LabeledGraph contextGraph;
+        private Atom atom;
+        private Solution solution;
+        private double similarity;
+        private int position;
+
+        Candidate(Avatar owner, LabeledGraph contextGraph, Atom atom, double bound, int position) {
+            this.owner = owner;
+            this.contextGraph = contextGraph;
+            this.atom = atom;
+            this.similarity = bound;
+            this.position = position;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int result = Double.compare(other.similarity, similarity);
+            return (result != 0) ? result : Integer.compare(position, other.position);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package mexica.engagement;
 
 import java.util.*;
+import subgraph.LabeledGraph;
 
 /**
  * The class stores all the available atoms for the program
@@ -9,9 +10,12 @@ import java.util.*;
  */
 public class AtomsStore {
     private List<Cell> cells;
+    /** Index of the compiled atoms by their labels */
+    private AtomIndex index;
     
     public AtomsStore() {
         cells = new ArrayList<>();
+        index = new AtomIndex();
     }
     
     public List<Cell> getCells() {
@@ -47,7 +51,8 @@ public class AtomsStore {
     }
 
     /**
-     * Adds the given atom to its correspondent cell and assigns the atom's ID according to the cell's size
+     * Adds the given atom to its correspondent cell and assigns the atom's ID according to the cell's size.<br>
+     * If the cell contains an equal atom, the next action and story IDs are added to it instead
      * @param atom The atom to be stored
      */
     public void addAtom(Atom atom) {
@@ -55,21 +60,47 @@ public class AtomsStore {
         emotions = atom.getEmotions().size();
         tensions = atom.getTensions().size();
         Cell cell = getCell(emotions, tensions);
-        boolean atomFound = false;
-        for (Atom a : cell.getAtoms()) {
-            if (AtomComparer.areEqual(atom, a)) {
-                if (!atom.getNextActions().isEmpty()) {
-                    a.getNextActions().add(atom.getNextActions().get(0));
-                    a.addAllStoryIDs(atom.getStoryIDs());
-                    atomFound = true;
-                    break;
-                }
-            }
+        Atom a = cell.findEqualAtom(atom);
+        if (a != null && !atom.getNextActions().isEmpty()) {
+            //The next actions and story IDs of a merged atom are not part of its graph, so its structure remains valid
+            a.getNextActions().add(atom.getNextActions().get(0));
+            a.addAllStoryIDs(atom.getStoryIDs());
         }
-        if (!atomFound && emotions+tensions > 0) {
+        else if (emotions+tensions > 0) {
             atom.setCellID(cell.getCellID());
             atom.setID(cell.getAtoms().size());
+            atom.setMatchGraph(new AtomGraph(atom));
             cell.addAtom(atom);
+            index.add(atom, cell);
+        }
+    }
+    
+    /**
+     * Compiles the structure employed to compare each atom in the store.<br>
+     * Must be called after the atoms are added directly to the cells (e.g. after parsing the atoms file).
+     * The comparisons cached against the previous structures are discarded
+     */
+    public void compileAtoms() {
+        SimilarityCache.getInstance().clear();
+        index = new AtomIndex();
+        for (Cell cell : cells) {
+            for (Atom atom : cell.getAtoms()) {
+                atom.setMatchGraph(new AtomGraph(atom));
+                index.add(atom, cell);
+            }
         }
     }
+    
+    /**
+     * Obtains the atoms that might reach the given similarity against the context.<br>
+     * The rest of the atoms can be discarded without comparing them.
+     * The index is only read, so the search can be performed by several threads; 
+     * the atoms added directly to the cells are not found until compileAtoms is called
+     * @param contextGraph Graph of the context to analyze
+     * @param minimumSimilarity Minimum similarity value expected
+     * @return The candidate atoms grouped by cell
+     */
+    public Map<Cell, List<Atom>> obtainCandidates(LabeledGraph contextGraph, int minimumSimilarity) {
+        return index.obtainCandidates(contextGraph, minimumSimilarity);
+    }
 }
\ No newline at end of file
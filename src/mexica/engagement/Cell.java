@@ -2,7 +2,9 @@ package mexica.engagement;
 
 import java.util.*;
 import mexica.MexicaParameters;
+import mexica.context.ContextBuilder;
 import mexica.story.ConditionInstantiated;
+import subgraph.LabeledGraph;
 import subgraph.Solution;
 
 /**
@@ -13,6 +15,10 @@ public class Cell {
     private String cellID;
     private int tensionCount, emotionCount;
     private List<Atom> atoms;
+    /** First atom of the cell with each key, employed to find equal atoms */
+    private Map<AtomKey, Atom> atomKeys;
+    /** Number of atoms included in the keys map */
+    private int indexedAtoms;
     
     public Cell(String tensionCount, String emotionCount)
     {
@@ -51,18 +57,68 @@ public class Cell {
      * @return A list of the similar atoms to the given context
      */
     public Map<Atom, Solution> getAtoms(List<ConditionInstantiated> context, int minimumSimilarity) {
+        LabeledGraph contextGraph = ContextBuilder.generateGraphFromContext(context);
+        return getAtoms(contextGraph, atoms, minimumSimilarity);
+    }
+    
+    /**
+     * Obtains the atoms similar to the given context, analyzing only the given candidates.<br>
+     * If the similarity avaluation of the atom is higher than the given similarity, the atom is added to the list.
+     * @param contextGraph The graph of the context to compare against
+     * @param candidates The atoms of the cell to analyze
+     * @param minimumSimilarity The minimum similarity value to preserve an atom
+     * @return A list of the similar atoms to the given context
+     */
+    public Map<Atom, Solution> getAtoms(LabeledGraph contextGraph, Collection<Atom> candidates, int minimumSimilarity) {
         Map<Atom, Solution> list = new HashMap<>();
-        for (Atom atom : atoms) {
-            Solution result = AtomComparer.compare(context, atom);
-            if (result != null && result.getSimilarity() >= minimumSimilarity && atom.getNextActions().size() > 0) {
+        for (Atom atom : candidates) {
+            Solution result = AtomComparer.compare(contextGraph, atom, minimumSimilarity);
+            if (isAvailable(atom, result, minimumSimilarity)) {
                 list.put(atom, result);
             }
         }
         return list;
     }
     
+    /**
+     * Determines if the atom compared can be employed to continue the story
+     * @param atom The atom compared
+     * @param result The result of the comparison
+     * @param minimumSimilarity The minimum similarity value to preserve an atom
+     * @return TRUE if the atom reaches the minimum similarity and has next actions
+     */
+    static boolean isAvailable(Atom atom, Solution result, int minimumSimilarity) {
+        return result != null && result.getSimilarity() >= minimumSimilarity && atom.getNextActions().size() > 0;
+    }
+    
     public void addAtom(Atom atom) {
         atoms.add(atom);
+        if (atomKeys != null && indexedAtoms == atoms.size() - 1)
+            indexAtom(atom);
+    }
+    
+    /**
+     * Looks for the first atom in the cell equal to the given atom (see AtomComparer.areEqual)
+     * @param atom
+     * @return The equal atom, or null if there isn't any
+     */
+    Atom findEqualAtom(Atom atom) {
+        //The keys are obtained again when the atoms were modified directly
+        if (atomKeys == null || indexedAtoms != atoms.size()) {
+            atomKeys = new HashMap<>();
+            indexedAtoms = 0;
+            for (Atom a : atoms) {
+                indexAtom(a);
+            }
+        }
+        return atomKeys.get(new AtomKey(atom));
+    }
+    
+    private void indexAtom(Atom atom) {
+        AtomKey key = new AtomKey(atom);
+        if (!atomKeys.containsKey(key))
+            atomKeys.put(key, atom);
+        indexedAtoms++;
     }
     
     @Override
@@ -173,7 +173,7 @@ public class EngagementCharacterInstantiator {
         }
         
         //Try to instantiate using one new character
-        if (MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION) {
+        if (story.isPartialCharacterInstantiationEnabled()) {
             for (CharacterName name : availableCharacters) {
                 instance = new ActionInstantiated(action, name);
                 if (story.getElementsEmployed().isActionAvailable(instance))
@@ -216,7 +216,7 @@ public class EngagementCharacterInstantiator {
         switch(MexicaParameters.FORBIDDEN_CHARACTERS) {
             case Active:
                 //All the context characters are banned
-                if (MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION) {
+                if (story.isPartialCharacterInstantiationEnabled()) {
                     performerCandidates.addAll(shuffle(availableCharacters));
                     receiverCandidates.addAll(shuffle(availableCharacters));
                 }
@@ -228,7 +228,7 @@ public class EngagementCharacterInstantiator {
                 
                 performerCandidates.addAll(shuffle(contextCharacters));
                 receiverCandidates.addAll(shuffle(contextCharacters));
-                if (MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION) {
+                if (story.isPartialCharacterInstantiationEnabled()) {
                     performerCandidates.addAll(shuffle(availableCharacters));
                     receiverCandidates.addAll(shuffle(availableCharacters));
                 }
@@ -237,7 +237,7 @@ public class EngagementCharacterInstantiator {
                 //No characters are banned
                 performerCandidates.addAll(shuffle(contextCharacters));
                 receiverCandidates.addAll(shuffle(contextCharacters));
-                if (MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION) {
+                if (story.isPartialCharacterInstantiationEnabled()) {
                     performerCandidates.addAll(shuffle(availableCharacters));
                     receiverCandidates.addAll(shuffle(availableCharacters));
                 }
@@ -7,11 +7,11 @@ import mexica.CharacterName;
 import mexica.MexicaParameters;
 import mexica.MexicaRepository;
 import mexica.context.AtomSimilarityResult;
+import mexica.context.ContextBuilder;
 import mexica.core.Action;
 import mexica.reflection.Guideline;
 import mexica.story.*;
-import mexica.story.filter.StoryFilterException;
-import mexica.tools.InvalidCharacterException;
+import subgraph.LabeledGraph;
 import subgraph.Solution;
 
 /**
@@ -19,6 +19,13 @@ import subgraph.Solution;
  * @author Ivan Guerrero
  */
 public class EngagementUtils {
+    /** Sorts the atoms in descending order of similarity */
+    private static final Comparator<AtomSimilarityResult> similarityComparator = new Comparator<AtomSimilarityResult>() {
+        @Override
+        public int compare(AtomSimilarityResult r1, AtomSimilarityResult r2) {
+            return Double.compare(r2.getSolution().getSimilarity(), r1.getSolution().getSimilarity());
+        }
+    };
     
     /**
      * Obtain the available atoms for each context.<br>
@@ -32,42 +39,88 @@ public class EngagementUtils {
      *      - Hr and Lr tensions of all the characters
      * If no atoms are found, an empty collection is returned.<br>
      * (For details, see section 4.3.1.1 from the PhD thesis Mexica: a computer model of creativity in writing).
+     * @param story The current story, its partial character instantiation is disabled when the ACAS III contexts are employed
      * @param characters The available characters inside the current story
      * @return A collection of similar atoms
      */
-    public static Collection<AtomSimilarityResult> obtainAvailableAtoms(List<Avatar> characters) {
+    public static Collection<AtomSimilarityResult> obtainAvailableAtoms(Story story, List<Avatar> characters) {
         List<Avatar> selection = selectRepresentativeContexts(characters);
         
-        AtomsStore atomStore = MexicaRepository.getInstance().getAtoms();
-        Collection<AtomSimilarityResult> availableAtoms = new ArrayList<>();
-        Collection<AtomSimilarityResult> list;
+        AcasCascade cascade = new AcasCascade(selection, MexicaRepository.getInstance().getAtoms());
+        List<List<ConditionInstantiated>> contexts = new ArrayList<>();
             
         for (Avatar avatar : selection) {
-            list = analyzeSimilarity(avatar, atomStore);
-            availableAtoms.addAll(list);
+            contexts.add(avatar.getContext().getFacts());
         }
+        cascade.addTier(contexts, MexicaParameters.ACAS_CONSTANT);
+        
+        return evaluateCascade(story, cascade, selection);
+    }
+    
+    /**
+     * Obtain the available atoms for each context sorted in descending order of similarity.<br>
+     * The atoms are compared only when they are requested from the iterator. 
+     * The ACAS II and ACAS III contexts are employed when no atoms are available in the previous step,
+     * as described in obtainAvailableAtoms.
+     * @param story The current story, its partial character instantiation is disabled when the ACAS III contexts are employed
+     * @param characters The available characters inside the current story
+     * @return An iterator over the similar atoms
+     */
+    public static Iterator<AtomSimilarityResult> iterateAvailableAtoms(Story story, List<Avatar> characters) {
+        List<Avatar> selection = selectRepresentativeContexts(characters);
+        
+        AtomsStore atomStore = MexicaRepository.getInstance().getAtoms();
+        Iterator<AtomSimilarityResult> availableAtoms;
+        List<List<ConditionInstantiated>> contexts = new ArrayList<>();
+        
+        for (Avatar avatar : selection) {
+            contexts.add(avatar.getContext().getFacts());
+        }
+        availableAtoms = new AtomSimilarityIterator(selection, contexts, atomStore, MexicaParameters.ACAS_CONSTANT);
+        
+        //The reduced contexts are evaluated in a single pass, the results are sorted by similarity
+        if (!availableAtoms.hasNext()) {
+            List<AtomSimilarityResult> list = new ArrayList<>(evaluateCascade(story, new AcasCascade(selection, atomStore), selection));
+            Collections.sort(list, similarityComparator);
+            availableAtoms = list.iterator();
+        }
+        
+        return availableAtoms;
+    }
+    
+    /**
+     * Adds the ACAS II and ACAS III tiers (when enabled) to the given cascade and evaluates it.<br>
+     * The reduced contexts are only analyzed while the previous tiers retrieve no atoms.
+     * @param story
+     * @param cascade
+     * @param selection The avatars owners of the contexts
+     * @return The atoms retrieved by the first tier with available atoms
+     */
+    private static Collection<AtomSimilarityResult> evaluateCascade(Story story, AcasCascade cascade, List<Avatar> selection) {
+        int acasII = -1, acasIII = -1;
         
-        if (MexicaParameters.ENABLE_ACAS_II && availableAtoms.isEmpty()) {
+        if (MexicaParameters.ENABLE_ACAS_II) {
+            List<List<ConditionInstantiated>> contexts = new ArrayList<>();
             for (Avatar avatar : selection) {
-                List<ConditionInstantiated> facts = transformFactsII(avatar);
-                list = analyzeSimilarity(avatar, facts, atomStore, MexicaParameters.ACAS_II_CONSTANT);
-                availableAtoms.addAll(list);
+                contexts.add(transformFactsII(avatar));
             }
-            if (!availableAtoms.isEmpty())
-                Logger.getGlobal().log(Level.INFO, "ACAS II utilized");
+            acasII = cascade.addTier(contexts, MexicaParameters.ACAS_II_CONSTANT);
         }
         
-        if (MexicaParameters.ENABLE_ACAS_III && availableAtoms.isEmpty()) {
+        if (MexicaParameters.ENABLE_ACAS_III) {
+            List<List<ConditionInstantiated>> contexts = new ArrayList<>();
             for (Avatar avatar : selection) {
-                List<ConditionInstantiated> facts = transformFactsIII(avatar);
-                list = analyzeSimilarity(avatar, facts, atomStore, MexicaParameters.ACAS_III_CONSTANT);
-                availableAtoms.addAll(list);
-            }
-            
-            if (!availableAtoms.isEmpty()) {
-                Logger.getGlobal().log(Level.INFO, "ACAS III utilized");
-                MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION = false;
+                contexts.add(transformFactsIII(avatar));
             }
+            acasIII = cascade.addTier(contexts, MexicaParameters.ACAS_III_CONSTANT);
+        }
+        
+        Collection<AtomSimilarityResult> availableAtoms = cascade.evaluate();
+        if (acasII >= 0 && cascade.getSelectedTier() == acasII)
+            Logger.getGlobal().log(Level.INFO, "ACAS II utilized");
+        else if (acasIII >= 0 && cascade.getSelectedTier() == acasIII) {
+            Logger.getGlobal().log(Level.INFO, "ACAS III utilized");
+            story.overridePartialCharacterInstantiation(false);
         }
         
         return availableAtoms;
@@ -93,14 +146,60 @@ public class EngagementUtils {
      * @return List of atom's comparison result whith similarity percentage
      */
     public static Collection<AtomSimilarityResult> analyzeSimilarity(Avatar owner, List<ConditionInstantiated> facts, AtomsStore atomStore, int minimumSimilarity) {
+        return analyzeSimilarity(Collections.singletonList(owner), Collections.singletonList(facts), atomStore, minimumSimilarity);
+    }
+    
+    /**
+     * Determines the similarity pecentage between the contexts of several characters and all the available atoms.<br>
+     * The comparisons are performed in parallel when ATOM_RETRIEVAL_PARALLELISM is greater than one,
+     * the results are always sorted by owner and cell as in the sequential analysis.
+     * @param owners Avatars owners of the given contexts
+     * @param contexts Known facts of each owner
+     * @param atomStore Store with the available atoms
+     * @param minimumSimilarity Minimum similarity value for an atom to be retrieved
+     * @return List of atom's comparison result whith similarity percentage
+     */
+    public static Collection<AtomSimilarityResult> analyzeSimilarity(List<Avatar> owners, List<List<ConditionInstantiated>> contexts, AtomsStore atomStore, int minimumSimilarity) {
         Collection<AtomSimilarityResult> result = new ArrayList<>();
-                
-        //Compares the context against every available atom
-        for (Cell cell : atomStore.getCells()) {
-            Map<Atom, Solution> atoms = cell.getAtoms(facts);
-            for (Atom atom : atoms.keySet()) {
-                AtomSimilarityResult atomResult = new AtomSimilarityResult(atom, atoms.get(atom), owner);
-                result.add(atomResult);
+        List<Map<Cell, List<Atom>>> candidates = new ArrayList<>();
+        List<LabeledGraph> graphs = new ArrayList<>();
+        List<Atom> atoms = new ArrayList<>();
+        
+        //Obtains the atoms that might reach the minimum similarity for each context
+        for (List<ConditionInstantiated> facts : contexts) {
+            LabeledGraph contextGraph = ContextBuilder.generateGraphFromContext(facts);
+            Map<Cell, List<Atom>> contextCandidates = atomStore.obtainCandidates(contextGraph, minimumSimilarity);
+            candidates.add(contextCandidates);
+            for (Cell cell : atomStore.getCells()) {
+                if (!contextCandidates.containsKey(cell))
+                    continue;
+                for (Atom atom : contextCandidates.get(cell)) {
+                    graphs.add(contextGraph);
+                    atoms.add(atom);
+                }
+            }
+        }
+        
+        //Compares the contexts against their candidates
+        Solution[] solutions = AtomRetrievalTask.compare(graphs.toArray(new LabeledGraph[0]), atoms.toArray(new Atom[0]), 
+                                                         minimumSimilarity, MexicaParameters.ATOM_RETRIEVAL_PARALLELISM);
+        
+        //Merges the results in the same order employed to compare them
+        int position = 0;
+        for (int i=0; i<contexts.size(); i++) {
+            for (Cell cell : atomStore.getCells()) {
+                if (!candidates.get(i).containsKey(cell))
+                    continue;
+                Map<Atom, Solution> similarAtoms = new HashMap<>();
+                for (Atom atom : candidates.get(i).get(cell)) {
+                    Solution solution = solutions[position++];
+                    if (Cell.isAvailable(atom, solution, minimumSimilarity))
+                        similarAtoms.put(atom, solution);
+                }
+                for (Atom atom : similarAtoms.keySet()) {
+                    AtomSimilarityResult atomResult = new AtomSimilarityResult(atom, similarAtoms.get(atom), owners.get(i));
+                    result.add(atomResult);
+                }
             }
         }
         
@@ -140,32 +239,19 @@ public class EngagementUtils {
 
     private static List<ActionInstantiated> instantiateActions(Story story, Action action, AtomSimilarityResult atomResult) {
         List<ActionInstantiated> result = new ArrayList<>();
-        ActionInstantiated newAction;
         
         List<Action> actionList = MexicaRepository.getInstance().getActions().getActionList();
         int index = actionList.indexOf(action);
         
-        if (action.getNoCharacters() == 2) {
-            List<CharacterName> characters = EngagementCharacterInstantiator.instantiateCharacters(story, action, atomResult);
-            action = actionList.get(index);
-            try {
-                newAction = story.addAction(action, characters.get(0), characters.get(1));
-                if ((newAction.breaksSocialNorm() && story.getGuidelines().containsGuideline(Guideline.breakSocialNorm)) ||
-                    (!newAction.breaksSocialNorm() && story.getGuidelines().containsGuideline(Guideline.notBreakSocialNorm)))
-                    result.add(newAction);
-                story.removeAction(newAction);
-            } catch (InvalidCharacterException | DeadAvatarException | StoryFilterException ex) { }
-        }
-        else {
-            List<CharacterName> characters = EngagementCharacterInstantiator.instantiateCharacters(story, action, atomResult);
-            action = actionList.get(index);
-            try {
-                newAction = story.addAction(action, characters.get(0));
-                if ((newAction.breaksSocialNorm() && story.getGuidelines().containsGuideline(Guideline.breakSocialNorm)) ||
-                    (!newAction.breaksSocialNorm() && story.getGuidelines().containsGuideline(Guideline.notBreakSocialNorm)))
-                    result.add(newAction);
-                story.removeAction(newAction);
-            } catch (InvalidCharacterException | DeadAvatarException | StoryFilterException ex) {}
+        List<CharacterName> characters = EngagementCharacterInstantiator.instantiateCharacters(story, action, atomResult);
+        action = actionList.get(index);
+        CharacterName[] avatars = (action.getNoCharacters() == 2) ? 
+                new CharacterName[] {characters.get(0), characters.get(1)} : new CharacterName[] {characters.get(0)};
+        ActionEvaluation evaluation = story.evaluate(action, avatars);
+        if (evaluation.isValid()) {
+            if ((evaluation.breaksSocialNorm() && story.getGuidelines().containsGuideline(Guideline.breakSocialNorm)) ||
+                (!evaluation.breaksSocialNorm() && story.getGuidelines().containsGuideline(Guideline.notBreakSocialNorm)))
+                result.add(evaluation.getInstance());
         }
         
         return result;
@@ -0,0 +1,180 @@
+package mexica.engagement;
+
+import java.util.*;
+import mexica.MexicaParameters;
+import subgraph.LabeledGraph;
+import subgraph.SimilarityEvaluator;
+import subgraph.Solution;
+
+/**
+ * Least recently used cache of the comparisons between contexts and atoms.<br>
+ * Contexts are identified by the structure of their graph, which doesn't depend on the characters involved,
+ * so a context equal to a previous one up to a renaming of its characters reuses the previous comparisons.
+ * The structure keeps the order of the facts on purpose: the evaluator matches the edges in order and keeps
+ * the first mapping found, so the same facts in a different order may produce different pairs (even a different
+ * similarity), and a key independent of the order would return pairs the evaluator wouldn't find for that context.
+ * The edges matched are stored, and the solution is built again with the nodes of the actual context.<br>
+ * The comparisons refer to the compiled atoms, so the cache is cleared when the atoms are compiled again.<br>
+ * The memory employed is limited by MexicaParameters.SIMILARITY_CACHE_MEMORY; the least recently used contexts
+ * are removed when the limit is exceeded.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+public class SimilarityCache {
+    /** Approximate size in bytes of the cached elements */
+    private static final int CONTEXT_SIZE = 128, COMPARISON_SIZE = 64, PAIR_SIZE = 24, EDGE_SIZE = 12;
+    private static final SimilarityCache instance = new SimilarityCache();
+
+    private LinkedHashMap<Object, ContextEntry> contexts;
+    private long memory;
+    private long hits, misses;
+
+    private SimilarityCache() {
+        contexts = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public static SimilarityCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Compares the context against the compiled atom, reusing a previous comparison when available
+     * @param contextGraph Graph of the context to analyze
+     * @param matchGraph Compiled structure of the atom
+     * @param minimumSimilarity Minimum similarity value expected
+     * @return The solution found, or null if the atom cannot reach the minimum similarity
+     */
+    public Solution compare(LabeledGraph contextGraph, AtomGraph matchGraph, int minimumSimilarity) {
+        LabeledGraph atomGraph = matchGraph.getGraph();
+        SimilarityEvaluator evaluator = new SimilarityEvaluator();
+        if (MexicaParameters.SIMILARITY_CACHE_MEMORY <= 0)
+            return evaluator.evaluate(atomGraph, contextGraph, minimumSimilarity);
+
+        Object key = contextGraph.getStructureKey();
+        Comparison comparison = obtainComparison(key, matchGraph);
+        if (comparison != null && comparison.pairs != null) {
+            //The pairs are the ones the evaluator finds with any minimum similarity they reach
+            count(true);
+            int totalEdges = atomGraph.getEdgeCount() + contextGraph.getEdgeCount();
+            if (Solution.getSimilarity(comparison.pairs.length, totalEdges) < minimumSimilarity)
+                return null;
+            return evaluator.createSolution(atomGraph, contextGraph, comparison.pairs);
+        }
+        //The atom didn't reach a lower or equal similarity before
+        if (comparison != null && comparison.minimumSimilarity <= minimumSimilarity) {
+            count(true);
+            return null;
+        }
+
+        count(false);
+        int[][] pairs = evaluator.match(atomGraph, contextGraph, minimumSimilarity);
+        storeComparison(key, contextGraph.getEdgeCount(), matchGraph, new Comparison(pairs, minimumSimilarity));
+        return evaluator.createSolution(atomGraph, contextGraph, pairs);
+    }
+
+    private synchronized Comparison obtainComparison(Object key, AtomGraph matchGraph) {
+        ContextEntry entry = contexts.get(key);
+        return (entry != null) ? entry.comparisons.get(matchGraph) : null;
+    }
+
+    private synchronized void count(boolean hit) {
+        if (hit)
+            hits++;
+        else
+            misses++;
+    }
+
+    private synchronized void storeComparison(Object key, int edges, AtomGraph matchGraph, Comparison comparison) {
+        ContextEntry entry = contexts.get(key);
+        if (entry == null) {
+            entry = new ContextEntry(CONTEXT_SIZE + EDGE_SIZE * edges);
+            contexts.put(key, entry);
+            memory += entry.size;
+        }
+        Comparison previous = entry.comparisons.put(matchGraph, comparison);
+        if (previous != null) {
+            entry.size -= previous.getSize();
+            memory -= previous.getSize();
+        }
+        entry.size += comparison.getSize();
+        memory += comparison.getSize();
+
+        //Removes the least recently used contexts
+        long limit = MexicaParameters.SIMILARITY_CACHE_MEMORY * 1024L;
+        Iterator<ContextEntry> iterator = contexts.values().iterator();
+        while (memory > limit && iterator.hasNext()) {
+            ContextEntry oldest = iterator.next();
+            memory -= oldest.size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all the comparisons and resets the counters
+     */
+    public synchronized void clear() {
+        contexts.clear();
+        memory = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * @return The number of comparisons obtained from the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of comparisons performed
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return The approximate memory employed in bytes
+     */
+    public synchronized long getMemory() {
+        return memory;
+    }
+
+    public synchronized int getContextCount() {
+        return contexts.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return contexts.size() + " contexts, " + hits + " hits, " + misses + " misses, " + (memory / 1024) + " KB";
+    }
+
+    /**
+     * Comparisons of a context against the compiled atoms
+     */
+    private static class ContextEntry {
+        private Map<AtomGraph, Comparison> comparisons;
+        private long size;
+
+        ContextEntry(long size) {
+            comparisons = new IdentityHashMap<>();
+            this.size = size;
+        }
+    }
+
+    /**
+     * Edges matched in a comparison, or the minimum similarity the atom didn't reach
+     */
+    private static class Comparison {
+        private final int[][] pairs;
+        private final int minimumSimilarity;
+
+        Comparison(int[][] pairs, int minimumSimilarity) {
+            this.pairs = pairs;
+            this.minimumSimilarity = minimumSimilarity;
+        }
+
+        long getSize() {
+            return COMPARISON_SIZE + ((pairs != null) ? PAIR_SIZE * pairs.length : 0);
+        }
+    }
+}
@@ -206,6 +206,7 @@ public class AtomParser {
                 currentCell.addAtom(currentAtom);
             if (currentCell != null && currentCell.getAtoms().size() > 0)
                 atoms.getCells().add(currentCell);
+            atoms.compileAtoms();
         } catch (Exception ex) {
             Logger.getGlobal().log(Level.WARNING, "Error reading atoms from {0}", path);
         }
@@ -59,6 +59,7 @@ public class HierarchyStore {
     /**
      * Obtains the social relationship between the given characters.
      * @param charactersList The list of characters to be compared. If only one character is receiver, the result is 0.
+     * The result is also 0 when a character isn't classified inside the social hierarchy
      * @return A numeric value representing the distance between the classification of the characters inside the social hierarchy
      */
     public int getSocialRelationship(List<CharacterName> charactersList) {
@@ -70,12 +71,16 @@ public class HierarchyStore {
         HierarchicalGroup socialGroup = getSocialGroup();
         Hierarchy perfHierarchy = socialGroup.getHierarchy(performer);
         Hierarchy recHierarchy = socialGroup.getHierarchy(receiver);
+        //A character without classification in the hierarchy has no relationship with the rest
+        if (perfHierarchy == null || recHierarchy == null)
+            return 0;
         return getDistance(perfHierarchy, recHierarchy);
     }
     
     /**
      * Obtains the gender relationship between the given characters
-     * @param charactersList
+     * @param charactersList The list of characters to be compared. 
+     * The result is 0 if only one character is received or a character isn't classified inside the gender hierarchy
      * @return A numeric value representing the distance between the classification of the characters inside the gender hierarchy
      */
     public int getGenderRelationship(List<CharacterName> charactersList) {
@@ -87,6 +92,9 @@ public class HierarchyStore {
         HierarchicalGroup genderGroup = getGenderGroup();
         Hierarchy perfHierarchy = genderGroup.getHierarchy(performer);
         Hierarchy recHierarchy = genderGroup.getHierarchy(receiver);
+        //A character without classification in the hierarchy has no relationship with the rest
+        if (perfHierarchy == null || recHierarchy == null)
+            return 0;
         return getDistance(perfHierarchy, recHierarchy);
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import javax.swing.JPopupMenu;
 import mexica.MexicaParameters;
 import mexica.action.*;
 import mexica.core.*;
+import mexica.gui.utils.ThrottledStoryListener;
 import mexica.story.*;
 import mexica.story.IStoryContextListener.ListType;
 import mexica.story.filter.StoryFilterException;
@@ -32,13 +33,22 @@ public class MexicaStoryGenerator extends javax.swing.JFrame {
     }
 
     private void setListeners() {
-        story.addStoryContextListener(listActions, ListType.Actions);
-        story.addStoryContextListener(listStory, ListType.Story);
-        story.addStoryContextListener(panelContext, ListType.Characters);
+        story.addStoryContextListener(throttle(listActions), ListType.Actions);
+        story.addStoryContextListener(throttle(listStory), ListType.Story);
+        story.addStoryContextListener(throttle(panelContext), ListType.Characters);
         
         reflectionGUI = new MexicaReflectionGUI(this, true, story);
     }
     
+    /**
+     * Groups the notifications received by the listener during GUI_UPDATE_DELAY milliseconds
+     */
+    private IStoryContextListener throttle(IStoryContextListener listener) {
+        if (MexicaParameters.GUI_UPDATE_DELAY > 0)
+            return new ThrottledStoryListener(listener, MexicaParameters.GUI_UPDATE_DELAY);
+        return listener;
+    }
+    
     private void addPopupMenu() {
         final JPopupMenu popupFulfillCondition = new JPopupMenu();
         JMenuItem menuAddAction = new JMenuItem("Remove action");
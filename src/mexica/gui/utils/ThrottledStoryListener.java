@@ -0,0 +1,49 @@
+package mexica.gui.utils;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.*;
+import javax.swing.Timer;
+import mexica.story.IStoryContextListener;
+
+/**
+ * Listener that groups the notifications of a story received in a period of time.<br>
+ * The wrapped listener is notified once per type when the period ends, in the event dispatch thread,
+ * so a component is updated only once when several actions are added to the story in a row
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+public class ThrottledStoryListener implements IStoryContextListener, ActionListener {
+    private IStoryContextListener listener;
+    private Set<ListType> pendingTypes;
+    private Timer timer;
+    
+    /**
+     * @param listener Listener to be notified
+     * @param delay Time in milliseconds to wait after a notification before notifying the listener
+     */
+    public ThrottledStoryListener(IStoryContextListener listener, int delay) {
+        this.listener = listener;
+        pendingTypes = new LinkedHashSet<>();
+        timer = new Timer(delay, this);
+        timer.setRepeats(false);
+    }
+
+    @Override
+    public synchronized void notifyListener(ListType type) {
+        pendingTypes.add(type);
+        if (!timer.isRunning())
+            timer.start();
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        List<ListType> types;
+        synchronized (this) {
+            types = new ArrayList<>(pendingTypes);
+            pendingTypes.clear();
+        }
+        for (ListType type : types) {
+            listener.notifyListener(type);
+        }
+    }
+}
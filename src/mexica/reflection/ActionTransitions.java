@@ -0,0 +1,139 @@
+package mexica.reflection;
+
+import java.util.*;
+import mexica.core.Action;
+import mexica.engagement.parser.PreviousStory;
+import mexica.story.ActionInstantiated;
+
+/**
+ * Index of the consecutive actions employed in the previous stories.<br>
+ * For every action, and for every pair of actions, stores where they were employed in the previous stories,
+ * so the candidates to break an impasse and the similar pairs of the novelty analysis are obtained
+ * without analyzing every previous story
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+public class ActionTransitions {
+    /** Transitions grouped by the name of the first action, in the order they appear in the previous stories */
+    private Map<String, List<Transition>> transitions;
+    /** Transitions grouped by the names of both actions */
+    private Map<List<String>, List<Transition>> bigrams;
+
+    /**
+     * Creates the index with every pair of consecutive actions in the given stories
+     * @param previousStories
+     */
+    public ActionTransitions(List<PreviousStory> previousStories) {
+        transitions = new HashMap<>();
+        bigrams = new HashMap<>();
+        for (int storyId=0; storyId<previousStories.size(); storyId++) {
+            PreviousStory story = previousStories.get(storyId);
+            List<ActionInstantiated> storyActions = story.getActions();
+            for (int i=0; i<storyActions.size()-1; i++) {
+                Transition transition = new Transition(storyActions.get(i), storyActions.get(i+1), story, storyId);
+                String key = obtainKey(transition.getAction().getAction());
+                addTransition(transitions, key, transition);
+                addTransition(bigrams, Arrays.asList(key, obtainKey(transition.getNextAction().getAction())), transition);
+            }
+        }
+    }
+    
+    private static <K> void addTransition(Map<K, List<Transition>> index, K key, Transition transition) {
+        List<Transition> list = index.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            index.put(key, list);
+        }
+        list.add(transition);
+    }
+
+    /**
+     * Obtains the actions that followed the given action in the previous stories
+     * @param action
+     * @return A list of transitions in the order they appear in the previous stories
+     */
+    public List<Transition> getTransitions(Action action) {
+        List<Transition> list = transitions.get(obtainKey(action));
+        return (list != null) ? Collections.unmodifiableList(list) : Collections.<Transition>emptyList();
+    }
+
+    /**
+     * Obtains the occurrences of the given pair of consecutive actions in the previous stories
+     * @param action The first action
+     * @param nextAction The following action
+     * @return A list of transitions in the order they appear in the previous stories
+     */
+    public List<Transition> getTransitions(Action action, Action nextAction) {
+        List<Transition> list = bigrams.get(Arrays.asList(obtainKey(action), obtainKey(nextAction)));
+        return (list != null) ? Collections.unmodifiableList(list) : Collections.<Transition>emptyList();
+    }
+
+    /**
+     * Obtains the number of times that an action followed another one in the previous stories
+     * @param action The first action
+     * @param nextAction The following action
+     * @return
+     */
+    public int getFrequency(Action action, Action nextAction) {
+        return getTransitions(action, nextAction).size();
+    }
+
+    /**
+     * Obtains the number of times that every action followed the given action in the previous stories
+     * @param action
+     * @return A map with the following actions and their frequencies
+     */
+    public Map<Action, Integer> getFrequencies(Action action) {
+        Map<Action, Integer> frequencies = new LinkedHashMap<>();
+        for (Transition transition : getTransitions(action)) {
+            Action nextAction = transition.getNextAction().getAction();
+            Integer frequency = frequencies.get(nextAction);
+            frequencies.put(nextAction, (frequency == null) ? 1 : frequency + 1);
+        }
+        return frequencies;
+    }
+
+    /**
+     * Actions are equal when their names are equal ignoring case
+     */
+    private static String obtainKey(Action action) {
+        return action.getActionName().toLowerCase();
+    }
+
+    /**
+     * Pair of consecutive actions in a previous story
+     */
+    public static class Transition {
+        private ActionInstantiated action, nextAction;
+        private PreviousStory story;
+        private int storyId;
+
+        Transition(ActionInstantiated action, ActionInstantiated nextAction, PreviousStory story, int storyId) {
+            this.action = action;
+            this.nextAction = nextAction;
+            this.story = story;
+            this.storyId = storyId;
+        }
+
+        public ActionInstantiated getAction() {
+            return action;
+        }
+
+        public ActionInstantiated getNextAction() {
+            return nextAction;
+        }
+
+        /**
+         * @return The previous story where the actions were employed
+         */
+        public PreviousStory getStory() {
+            return story;
+        }
+
+        /**
+         * @return The position of the story in the list of previous stories
+         */
+        public int getStoryId() {
+            return storyId;
+        }
+    }
+}
@@ -30,6 +30,16 @@ public class Guidelines {
         this.story = story;
     }
     
+    /**
+     * Creates a copy of the given guidelines for another story, as when the story is forked
+     * @param story The story employing the copy
+     * @param guidelines The guidelines to be copied
+     */
+    public Guidelines(Story story, Guidelines guidelines) {
+        this.guidelines = new HashSet<>(guidelines.guidelines);
+        this.story = story;
+    }
+    
     public boolean addGuideline(Guideline guideline) {
         Logger.getGlobal().log(Level.FINE, "Guideline added: {0}", guideline);
         if (guideline == Guideline.endStory)
@@ -6,7 +6,6 @@ import java.util.logging.Logger;
 import mexica.CharacterName;
 import mexica.MexicaRepository;
 import mexica.core.Action;
-import mexica.engagement.parser.PreviousStory;
 import mexica.story.*;
 import mexica.story.filter.StoryFilterException;
 import mexica.story.log.StoryLog;
@@ -43,16 +42,12 @@ public class ImpasseAnalyzer {
         //Looks for action candidates to break the impasse
         List<ActionPair> candidates = new ArrayList<>();
         
-        List<PreviousStory> previousStories = MexicaRepository.getInstance().getPreviousStories();
-        for (PreviousStory story : previousStories) {
-            List<ActionInstantiated> storyActions = story.getActions();
-            for (int i=0; i<storyActions.size()-1; i++) {
-                ActionInstantiated act = storyActions.get(i);
-                ActionInstantiated nextAct = storyActions.get(i+1);
-                //remove composite actions
-                if (act.getAction().equals(lastAction.getAction()) && !nextAct.getAction().getActionName().equalsIgnoreCase("realised"))
-                    candidates.add(new ActionPair(act, nextAct));
-            }
+        ActionTransitions transitions = MexicaRepository.getInstance().getActionTransitions();
+        for (ActionTransitions.Transition transition : transitions.getTransitions(lastAction.getAction())) {
+            ActionInstantiated nextAct = transition.getNextAction();
+            //remove composite actions
+            if (!nextAct.getAction().getActionName().equalsIgnoreCase("realised"))
+                candidates.add(new ActionPair(transition.getAction(), nextAct));
         }
         
         //Look for the actions that breaks the impasse
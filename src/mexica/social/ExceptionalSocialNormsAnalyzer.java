@@ -26,8 +26,8 @@ public class ExceptionalSocialNormsAnalyzer implements IAnalyzer{
     
     @Override
     public void analyze(AvatarContext context) {
-        List<ActionInstantiated> actions = story.getActions();
-        ActionInstantiated lastAction = actions.get(story.getCurrentYear()-2);
+        //The social data of the action is updated, so it can't be shared with a fork of the story
+        ActionInstantiated lastAction = story.getModifiableAction(story.getCurrentYear()-2);
         
         AvatarFactory avatarFactory = story.getAvatarFactory();
         Avatar owner = avatarFactory.getAvatar(context.getOwner());
@@ -42,8 +42,8 @@ public class SocialNormsAnalyzer implements IAnalyzer {
         //Social conditions to be added to the contexts
         List<ConditionInstantiated> socialConditions = new ArrayList<>();
 
-        List<ActionInstantiated> actions = story.getActions();
-        ActionInstantiated lastAction = actions.get(story.getCurrentYear()-2);
+        //The social data of the action is updated, so it can't be shared with a fork of the story
+        ActionInstantiated lastAction = story.getModifiableAction(story.getCurrentYear()-2);
         
         AvatarFactory avatarFactory = story.getAvatarFactory();
         Avatar owner = avatarFactory.getAvatar(context.getOwner());
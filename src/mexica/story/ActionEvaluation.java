@@ -0,0 +1,129 @@
+package mexica.story;
+
+import java.util.*;
+import mexica.CharacterName;
+import mexica.core.Action;
+import mexica.social.SocialStatus;
+
+/**
+ * Result of evaluating a candidate action against the current state of a story.<br>
+ * Contains the action instantiated, the facts of the characters and the missing conditions after performing it,
+ * or the exception thrown when the action cannot be added (dead or invalid characters, or a story filter)
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+public class ActionEvaluation {
+    private Action action;
+    private CharacterName[] characters;
+    private ActionInstantiated instance;
+    private Exception exception;
+    /** Story where the action was added, the facts are obtained from it when they are requested */
+    private Story story;
+
+    /**
+     * Keeps the story obtained after adding the action, which is not modified anymore
+     * @param story
+     * @param instance The action added to the story
+     * @param characters
+     */
+    ActionEvaluation(Story story, ActionInstantiated instance, CharacterName... characters) {
+        this.action = instance.getAction();
+        this.characters = characters;
+        this.instance = instance;
+        this.story = story;
+    }
+
+    /**
+     * Stores the reason why the action cannot be added to the story
+     * @param action
+     * @param exception
+     * @param characters
+     */
+    ActionEvaluation(Action action, Exception exception, CharacterName... characters) {
+        this.action = action;
+        this.characters = characters;
+        this.exception = exception;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public CharacterName[] getCharacters() {
+        return characters;
+    }
+
+    /**
+     * @return TRUE if the action can be added to the story
+     */
+    public boolean isValid() {
+        return instance != null;
+    }
+
+    /**
+     * @return The action instantiated, or null if the action cannot be added to the story
+     */
+    public ActionInstantiated getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return The exception thrown when the action was added, or null if the action is valid
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * @return TRUE if the action breaks a social norm in any of the characters' contexts
+     */
+    public boolean breaksSocialNorm() {
+        return instance != null && instance.breaksSocialNorm();
+    }
+
+    /**
+     * @return The social status of the action, or null if the action cannot be added or wasn't analyzed
+     */
+    public SocialStatus getSocialStatus() {
+        return (instance != null && instance.getSocialData() != null) ? instance.getSocialData().getSocialStatus() : null;
+    }
+
+    /**
+     * Obtains the facts known by a character after performing the action
+     * @param character
+     * @return The list of facts, empty if the character wasn't active
+     */
+    public List<ConditionInstantiated> getFacts(CharacterName character) {
+        if (story != null) {
+            for (Avatar avatar : story.getAvatarFactory().getActiveCharacters()) {
+                if (avatar.getName() == character)
+                    return avatar.getContext().getFacts();
+            }
+        }
+        return Collections.<ConditionInstantiated>emptyList();
+    }
+
+    /**
+     * @return The characters active after performing the action
+     */
+    public Set<CharacterName> getActiveCharacters() {
+        Set<CharacterName> characters = EnumSet.noneOf(CharacterName.class);
+        if (story != null) {
+            for (Avatar avatar : story.getAvatarFactory().getActiveCharacters()) {
+                characters.add(avatar.getName());
+            }
+        }
+        return characters;
+    }
+
+    /**
+     * @return The missing conditions of the story after performing the action
+     */
+    public List<ConditionInstantiated> getMissingConditions() {
+        return (story != null) ? story.getMissingConditions() : Collections.<ConditionInstantiated>emptyList();
+    }
+
+    @Override
+    public String toString() {
+        return action + " " + Arrays.toString(characters) + ((instance != null) ? "" : " (" + exception.getMessage() + ")");
+    }
+}
@@ -81,6 +81,17 @@ public class ActionInstantiated implements Cloneable {
     }
     
     public ActionInstantiated(Action action, CharacterName... characters) {
+        this(action, (action instanceof CompositeAction) ? ((CompositeAction)action).getAvatarFactory() : null, characters);
+    }
+    
+    /**
+     * Instantiates the action with the given characters
+     * @param action
+     * @param avatarFactory Characters of the story where the action is employed, 
+     *                      to obtain the posconditions of a composite action without modifying it
+     * @param characters 
+     */
+    public ActionInstantiated(Action action, AvatarFactory avatarFactory, CharacterName... characters) {
         this.action = action;
         charactersList = new ArrayList<>();
         charactersList.addAll(Arrays.asList(characters));
@@ -94,7 +105,7 @@ public class ActionInstantiated implements Cloneable {
         
         //TODO: Update this to initialize the social data in case the action is a social action
         if (action instanceof CompositeAction)
-            initCompositeAction(characters);
+            initCompositeAction(avatarFactory, characters);
         else
             initRegularAction(characters);
     }
@@ -115,16 +126,16 @@ public class ActionInstantiated implements Cloneable {
     }
     
     //TODO: Validate if this version converts % intensity in realised actions
-    private void initCompositeAction(CharacterName... characters) {
+    private void initCompositeAction(AvatarFactory avatarFactory, CharacterName... characters) {
         CompositeAction act = (CompositeAction)getAction();
         ActionInstantiated contained = act.getContainedAction();
         
         //Adds the posconditions of the composite action plus the posconditions of the contained action
         for (ConditionInstantiated cond : contained.getPosconditions()) {
-            if (cond.getCharacterA().equals(CharacterName.Linked_Characters_B) && act.getAvatarFactory() != null) {
-                Avatar performer = act.getAvatarFactory().getAvatar(contained.getCharactersList().get(0));
-                Avatar receiver = act.getAvatarFactory().getAvatar(contained.getCharactersList().get(1));
-                Avatar gossip = act.getAvatarFactory().getAvatar(characters[0]);
+            if (cond.getCharacterA().equals(CharacterName.Linked_Characters_B) && avatarFactory != null) {
+                Avatar performer = avatarFactory.getAvatar(contained.getCharactersList().get(0));
+                Avatar receiver = avatarFactory.getAvatar(contained.getCharactersList().get(1));
+                Avatar gossip = avatarFactory.getAvatar(characters[0]);
                 
                 //Checks if the receiver of the condition and the owner of the composite action (gossip) are friends
                 if (receiver.getContext().getLinkedCharacters(false).contains(gossip)) {
@@ -368,4 +379,36 @@ public class ActionInstantiated implements Cloneable {
     public int getIterationNumber() {
         return iterationNumber;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Obtains a copy of the action for a story obtained with Story.fork.<br>
+     * The instantiated conditions and the social data are copied, since they are updated when the action is performed
+     * @return 
+     */
+    ActionInstantiated copy() {
+        ActionInstantiated act = new ActionInstantiated();
+        act.action = action;
+        act.charactersList.addAll(charactersList);
+        copyConditions(preconditions, act.preconditions, act);
+        copyConditions(posconditions, act.posconditions, act);
+        copyConditions(tensions, act.tensions, act);
+        act.texts.addAll(texts);
+        act.insertionMode = insertionMode;
+        act.socialData = (socialData != null) ? new SocialData(socialData) : null;
+        act.newCharacterPosition = newCharacterPosition;
+        act.collaborativeAction = collaborativeAction;
+        act.mexicaImproID = mexicaImproID;
+        act.actionID = actionID;
+        act.iterationNumber = iterationNumber;
+        return act;
+    }
+    
+    private void copyConditions(List<ConditionInstantiated> source, List<ConditionInstantiated> target, ActionInstantiated act) {
+        for (ConditionInstantiated cond : source) {
+            ConditionInstantiated c = (ConditionInstantiated)cond.clone();
+            if (cond.getAction() == this)
+                c.setAction(act);
+            target.add(c);
+        }
+    }
+}
@@ -40,6 +40,20 @@ public class Avatar implements Cloneable {
         positionsVisited = EnumSet.noneOf(Position.class);
     }
     
+    /**
+     * Creates a character with the same name and the given context
+     * @param avatar 
+     * @param story The story of the new character
+     * @param context
+     */
+    private Avatar(Avatar avatar, Story story, AvatarContext context) {
+        this.story = story;
+        this.name = avatar.name;
+        this.ID = avatar.ID;
+        this.context = context;
+        positionsVisited = EnumSet.noneOf(Position.class);
+    }
+    
     /**
      * Creates a new character with the given name
      * Only one character with this name is available in a tale
@@ -83,6 +97,7 @@ public class Avatar implements Cloneable {
      * are never active or if the character is not alive cannot be active
      */
     public void activate(int yearOfBirth) {
+        recordChange();
         active = true;
         this.yearOfBirth = yearOfBirth;
     }
@@ -91,10 +106,13 @@ public class Avatar implements Cloneable {
      * @param currentPosition the currentPosition to set
      */
     public void setCurrentPosition(Position currentPosition) {
+        recordChange();
         birthPosition = (this.currentPosition == Position.NotDefined) ? currentPosition : birthPosition;
         previousPosition = (this.currentPosition != null) ? this.currentPosition : currentPosition;
+        Position oldPosition = this.currentPosition;
         this.currentPosition = currentPosition;
         positionsVisited.add(currentPosition);
+        positionChanged(oldPosition);
     }
     
     public AvatarContext getContext() {
@@ -130,11 +148,13 @@ public class Avatar implements Cloneable {
      * NOTE: The character cannot be alive again
      */
     public void kill(int yearOfDeath) {
+        recordChange();
         this.alive = false;
         this.active = true;
         this.lastPosition = this.currentPosition;
         this.currentPosition = Position.NoWhere;
         this.yearOfDeath = yearOfDeath - 1; //Substract 1 because current year has moved to the following year 
+        positionChanged(lastPosition);
     }
     
     /**
@@ -148,6 +168,7 @@ public class Avatar implements Cloneable {
      * @param yearOfBirth the yearOfBirth to set
      */
     public void setYearOfBirth(int yearOfBirth) {
+        recordChange();
         this.yearOfBirth = yearOfBirth;
     }
 
@@ -162,6 +183,7 @@ public class Avatar implements Cloneable {
      * @param yearOfDeath the yearOfDeath to set
      */
     public void setYearOfDeath(int yearOfDeath) {
+        recordChange();
         this.yearOfDeath = yearOfDeath;
     }
     
@@ -209,6 +231,77 @@ public class Avatar implements Cloneable {
         return hash;
     }
     
+    /**
+     * Obtains a copy of the avatar to be stored in a story checkpoint.<br>
+     * Unlike clone, the conditions known by the avatar are shared with the copy
+     * @return 
+     */
+    public Avatar copy() {
+        Avatar a = new Avatar(this, story, context.copy());
+        a.restore(this);
+        return a;
+    }
+    
+    /**
+     * Obtains a copy of the avatar for a story obtained with Story.fork.<br>
+     * The conditions known by the avatar are shared until one of the copies is modified
+     * @param story The new story
+     * @return 
+     */
+    public Avatar fork(Story story) {
+        Avatar a = new Avatar(this, story, context.fork(story));
+        a.restore(this);
+        return a;
+    }
+    
+    /**
+     * Obtains a copy of the avatar sharing the same context, employed by the story journal
+     * @return 
+     */
+    Avatar copyState() {
+        Avatar a = new Avatar(this, story, context);
+        a.restore(this);
+        return a;
+    }
+    
+    /**
+     * Restablishes the state of the avatar (except its context) from the given copy
+     * @param avatar 
+     */
+    void restore(Avatar avatar) {
+        Position oldPosition = currentPosition;
+        active = avatar.active;
+        alive = avatar.alive;
+        birthPosition = avatar.birthPosition;
+        currentPosition = avatar.currentPosition;
+        lastPosition = avatar.lastPosition;
+        previousPosition = avatar.previousPosition;
+        yearOfBirth = avatar.yearOfBirth;
+        yearOfDeath = avatar.yearOfDeath;
+        positionsVisited.clear();
+        positionsVisited.addAll(avatar.positionsVisited);
+        positionChanged(oldPosition);
+    }
+    
+    /**
+     * Informs the factory of characters of the story about a change in the current position
+     * @param oldPosition The position before the change
+     */
+    private void positionChanged(Position oldPosition) {
+        if (oldPosition != currentPosition && story.getAvatarFactory() != null)
+            story.getAvatarFactory().updatePosition(this, oldPosition);
+    }
+    
+    /**
+     * Stores the current state of the avatar in the journal of the action being added, if any
+     */
+    private void recordChange() {
+        story.recordModification();
+        StoryJournal journal = story.getJournal();
+        if (journal != null)
+            journal.record(this);
+    }
+    
     @Override
     public Object clone() {
         Avatar a = new Avatar(ID, name, story);
@@ -5,7 +5,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import mexica.CharacterName;
 import mexica.MexicaParameters;
-import mexica.MexicaRepository;
 import mexica.core.*;
 import mexica.story.analyzer.AvatarTensions;
 import mexica.tools.*;
@@ -17,23 +16,51 @@ import mexica.tools.context.SpecialTensionAnalyzer;
  */
 public class AvatarContext extends StoryContextListener implements Cloneable {
     /** 
-     * facts is the list of known facts. 
+     * facts is the list of known facts, indexed to find the equivalent conditions. 
      * previousFacts is the list of facts in the previous iteration.
      * storicalFacts is the list of all the facts known or forgotten(removed) by the avatar
      */
-    private List<ConditionInstantiated> facts, previousFacts, storicalFacts;
+    private FactStore facts;
+    private List<ConditionInstantiated> previousFacts, storicalFacts;
     /** Characters with a positive emotion against the context owner */
     private List<CharacterName> linkedCharacters;
     private List<CharacterName> knownCharacters;
     private CharacterName owner;
     private AvatarTensions tensions;
+    /** TRUE when the lists and tensions are shared with a copy of the context, so they are copied before being modified */
+    private boolean shared;
+    /** Views of the lists, since the lists are replaced when a shared context is modified */
+    private final List<ConditionInstantiated> factsView = new ContextList<ConditionInstantiated>() {
+        @Override
+        List<ConditionInstantiated> list() {
+            return facts.getConditions();
+        }
+    };
+    private final List<ConditionInstantiated> previousFactsView = new ContextList<ConditionInstantiated>() {
+        @Override
+        List<ConditionInstantiated> list() {
+            return previousFacts;
+        }
+    };
+    private final List<ConditionInstantiated> storicalFactsView = new ContextList<ConditionInstantiated>() {
+        @Override
+        List<ConditionInstantiated> list() {
+            return storicalFacts;
+        }
+    };
+    private final List<CharacterName> knownCharactersView = new ContextList<CharacterName>() {
+        @Override
+        List<CharacterName> list() {
+            return knownCharacters;
+        }
+    };
     
     private SpecialTensionAnalyzer analyzer;
     private Story story;
     
     AvatarContext(CharacterName characterName, Story story) {
         this.story = story;
-        facts = new ArrayList<>();
+        facts = new FactStore();
         previousFacts = new ArrayList<>();
         storicalFacts = new ArrayList<>();
         linkedCharacters = new ArrayList<>();
@@ -48,6 +75,24 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
         addStoryContextListener(analyzer, IStoryContextListener.ListType.StoryUpdated);
     }
     
+    /**
+     * Copies the given context sharing its conditions, since a condition isn't modified once is known.<br>
+     * The lists of both contexts are shared until one of them is modified
+     * @param context 
+     * @param story The story of the new context
+     * @param analyzer The analyzer of special tensions of the new context
+     */
+    private AvatarContext(AvatarContext context, Story story, SpecialTensionAnalyzer analyzer) {
+        this.story = story;
+        owner = context.owner;
+        restore(context);
+
+        this.analyzer = analyzer;
+        addStoryContextListener(analyzer, IStoryContextListener.ListType.Tensions);
+        addStoryContextListener(analyzer, IStoryContextListener.ListType.Conditions);
+        addStoryContextListener(analyzer, IStoryContextListener.ListType.StoryUpdated);
+    }
+    
     /**
      * Adds the condition to the known facts
      * Validates if there are no equivalent conditions first
@@ -132,19 +177,20 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
     }
     
     /**
-     * Known facts stored in the context of the character owner
+     * Known facts stored in the context of the character owner.<br>
+     * The list is a read only view that reflects the following changes of the context
      * @return A list of known conditions
      */
     public List<ConditionInstantiated> getFacts() {
-        return facts;
+        return factsView;
     }
     
     /**
-     * Obtains a list with all the facts known or forgotten (deleted) by the avatar
+     * Obtains a read only view with all the facts known or forgotten (deleted) by the avatar
      * @return 
      */
     public List<ConditionInstantiated> getHistoricalFacts() {
-        return storicalFacts;
+        return storicalFactsView;
     }
         
     /**
@@ -179,11 +225,11 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
     }
     
     /**
-     * Obtains a list of the known characters by the context owner
+     * Obtains a read only view of the known characters by the context owner
      * @return A list of known character names
      */
     public List<CharacterName> getKnownCharacters() {
-        return knownCharacters;
+        return knownCharactersView;
     }
     
     /**
@@ -192,15 +238,20 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
      * @param condition 
      */
     public void addEmotionToList(ConditionInstantiated condition) {
+        recordChange();
         boolean equivalent = false;
+        //The fact following a removed one isn't compared
+        ConditionInstantiated skipped = null;
         
-        for (int i=0; i< facts.size(); i++) {
-            ConditionInstantiated cond = facts.get(i);
+        for (ConditionInstantiated cond : facts.obtainCandidates(condition)) {
+            if (cond == skipped)
+                continue;
             ComparisonResult res = ConditionComparer.compare(condition, cond);
             //If conditions are equivalent and the intensity of the new condition is greater
             //Then remove the previous condition
             if (res.isEqualOrEquivalent(true, true)) {
-                facts.remove(i);
+                skipped = facts.remove(cond);
+                story.recordModification();
             } 
             //If conditions are equivalent and the intensity of the new condition is of the same sign
             //Then don't add the new one
@@ -213,6 +264,7 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
         if (!equivalent) {
             facts.add(condition);
             storicalFacts.add(condition);
+            story.recordModification();
             if (condition.getCondition().getIntensity() > 0) {
                 //Establishes a link between B->A
                 story.getAvatarFactory().getAvatar(condition.getCharacterB()).getContext().addLinkedCharacter(condition.getCharacterA());
@@ -227,11 +279,12 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
      * @param condition The condition to be searched
      */
     public void removeEmotionFromList(ConditionInstantiated condition) {
-        for (int i=0; i< facts.size(); i++) {
-            ConditionInstantiated cond = facts.get(i);
+        recordChange();
+        for (ConditionInstantiated cond : facts.obtainCandidates(condition)) {
             ComparisonResult res = ConditionComparer.compare(condition, cond);
             if (res.isEqualOrEquivalent(true, true)) {
-                facts.remove(i);
+                facts.remove(cond);
+                story.recordModification();
                 break;
             }
         }
@@ -244,20 +297,27 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
      * @param removeEquivalent When TRUE if an equivalent condition is found in the list, this is removed
      */
     public void addTensionToList(ConditionInstantiated condition, boolean removeEquivalent) {
+        recordChange();
         boolean equivalent = false;
+        //The fact following a removed one isn't compared
+        ConditionInstantiated skipped = null;
         
-        for (int i=0; i< facts.size(); i++) {
-            ConditionInstantiated cond = facts.get(i);
+        for (ConditionInstantiated cond : facts.obtainCandidates(condition)) {
+            if (cond == skipped)
+                continue;
             ComparisonResult res = ConditionComparer.compare(condition, cond);
             //If the tension removes one of the previous tensions, perform it and don't add the new condition
             if (res.isDefeatable(true)) {
-                MexicaRepository.getInstance().getStoryAnalyzer().addTensionSolved(cond, condition);
-                facts.remove(i);
+                story.getStoryAnalyzer().addTensionSolved(cond, condition);
+                skipped = facts.remove(cond);
+                story.recordModification();
                 equivalent = true;
             }
             else if (res.isEqualOrEquivalent(true, false)) {
-                if (removeEquivalent)
-                    facts.remove(i);
+                if (removeEquivalent) {
+                    skipped = facts.remove(cond);
+                    story.recordModification();
+                }
                 equivalent = true;
             }
         }
@@ -271,7 +331,7 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
                 case LifeAtRisk:
                 case LoveCompetition:
                     addTension = true;
-                    MexicaRepository.getInstance().getStoryAnalyzer().addSpecialTension(condition);
+                    story.getStoryAnalyzer().addSpecialTension(condition);
                     break;
                 case PotencialDanger:
                 case ActorDead:
@@ -292,6 +352,7 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
             if (addTension) {
                 facts.add(condition);
                 storicalFacts.add(condition);
+                story.recordModification();
                 addKnownCharacter(condition.getCharacterA());
                 addKnownCharacter(condition.getCharacterB());
             }
@@ -304,10 +365,12 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
      * @param name Name of the character to link
      */
     private void addLinkedCharacter(CharacterName name) {
+        recordChange();
         if (!name.equals(owner) && 
             !AvatarFactory.getNonElegibleCharacternames().contains(name) &&
             !linkedCharacters.contains(name)) {
                 linkedCharacters.add(name);
+                story.recordModification();
         }
     }
 
@@ -316,6 +379,7 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
             !AvatarFactory.getNonElegibleCharacternames().contains(name) &&
             !knownCharacters.contains(name)) {
                 knownCharacters.add(name);
+                story.recordModification();
         }
     }
     
@@ -327,7 +391,7 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
      */
     public ConditionInstantiated getRelationshipWith(ConditionInstantiated instance, boolean onlyPositive) {
         ConditionInstantiated condition = null;
-        for (ConditionInstantiated cond : facts) {
+        for (ConditionInstantiated cond : facts.obtainCandidates(instance)) {
             ComparisonResult res = ConditionComparer.compare(instance, cond);
             if (res.isEqualOrEquivalent(true, false) && (!onlyPositive || cond.getCondition().getIntensity() > 0)) {
                 condition = cond;
@@ -354,7 +418,7 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
      * @return 
      */
     public boolean containsCondition(ConditionInstantiated condition) {
-        for (ConditionInstantiated cond : facts) {
+        for (ConditionInstantiated cond : facts.obtainCandidates(condition)) {
             ComparisonResult result = ConditionComparer.compare(cond, condition); //TODO: Test conditions inverted
             if (result.isEqualOrEquivalent(true, true))
                 return true;
@@ -368,7 +432,7 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
      * @return 
      */
     public boolean removesTension(ConditionInstantiated condition) {
-        for (ConditionInstantiated cond : facts) {
+        for (ConditionInstantiated cond : facts.obtainCandidates(condition)) {
             if (cond.getType() == ConditionType.Tension) {
                 ComparisonResult result = ConditionComparer.compare(condition, cond);
                 if (result.isDefeatable(true))
@@ -382,18 +446,70 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
      * Stores a backup of the current facts in the context
      */
     public void storePreviousFacts() {
-        previousFacts = new ArrayList<>();
-        for (ConditionInstantiated c : facts) {
-            previousFacts.add(c);
-        }
+        recordChange();
+        story.recordModification();
+        previousFacts = new ArrayList<>(facts.getConditions());
     }
     
     /**
-     * Obtains a list with las backed up facts
+     * Obtains a read only view with las backed up facts
      * @return 
      */
     public List<ConditionInstantiated> getPreviousFacts() {
-        return previousFacts;
+        return previousFactsView;
+    }
+    
+    /**
+     * Obtains a copy of the context to be stored in a story checkpoint
+     * @return 
+     */
+    AvatarContext copy() {
+        //The analyzer obtains the context from the story, so it can be shared
+        return new AvatarContext(this, story, analyzer);
+    }
+    
+    /**
+     * Obtains a copy of the context for a story obtained with Story.fork
+     * @param story The new story
+     * @return 
+     */
+    AvatarContext fork(Story story) {
+        return new AvatarContext(this, story, new SpecialTensionAnalyzer(owner, story));
+    }
+    
+    /**
+     * Restablishes the known facts, characters and tensions from the given copy.<br>
+     * The lists are shared with the copy until one of the contexts is modified
+     * @param context 
+     */
+    void restore(AvatarContext context) {
+        facts = context.facts;
+        previousFacts = context.previousFacts;
+        storicalFacts = context.storicalFacts;
+        linkedCharacters = context.linkedCharacters;
+        knownCharacters = context.knownCharacters;
+        tensions = context.tensions;
+        shared = true;
+        context.shared = true;
+    }
+    
+    /**
+     * Stores the current state of the context in the journal of the action being added, if any.<br>
+     * Called before the context is modified, so the lists shared with a copy are copied
+     */
+    void recordChange() {
+        StoryJournal journal = story.getJournal();
+        if (journal != null)
+            journal.record(this);
+        if (shared) {
+            facts = new FactStore(facts);
+            previousFacts = new ArrayList<>(previousFacts);
+            storicalFacts = new ArrayList<>(storicalFacts);
+            linkedCharacters = new ArrayList<>(linkedCharacters);
+            knownCharacters = new ArrayList<>(knownCharacters);
+            tensions = new AvatarTensions(tensions);
+            shared = false;
+        }
     }
     
     @Override
@@ -405,7 +521,7 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
         for (CharacterName name : knownCharacters) {
             ctx.knownCharacters.add(name);
         }
-        for (ConditionInstantiated cond : facts) {
+        for (ConditionInstantiated cond : facts.getConditions()) {
             ctx.facts.add((ConditionInstantiated)cond.clone());
         }
         for (ConditionInstantiated cond : previousFacts) {
@@ -418,4 +534,22 @@ public class AvatarContext extends StoryContextListener implements Cloneable {
         
         return ctx;
     }
+    
+    /**
+     * Read only view of a list of the context, obtains the current list on each access
+     * instead of keeping a list that may be replaced after a copy of the context is modified
+     */
+    private abstract static class ContextList<E> extends AbstractList<E> implements RandomAccess {
+        abstract List<E> list();
+        
+        @Override
+        public E get(int index) {
+            return list().get(index);
+        }
+
+        @Override
+        public int size() {
+            return list().size();
+        }
+    }
 }
\ No newline at end of file
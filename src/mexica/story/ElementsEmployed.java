@@ -23,6 +23,17 @@ public class ElementsEmployed implements IStoryContextListener {
         simpleActionsEmployed = new HashMap<>();
     }
     
+    /**
+     * Copies the elements employed in another story
+     * @param elements 
+     */
+    public ElementsEmployed(ElementsEmployed elements) {
+        atomsEmployed = new HashMap<>(elements.atomsEmployed);
+        actionsEmployed = new HashMap<>(elements.actionsEmployed);
+        simpleActionsEmployed = new HashMap<>(elements.simpleActionsEmployed);
+        lastAction = elements.lastAction;
+    }
+    
     public void notifyStartOfStep() {
         //atomsEmployed = new HashMap<>();
     }
@@ -0,0 +1,222 @@
+package mexica.story;
+
+import java.util.*;
+import mexica.CharacterName;
+import mexica.core.ConditionType;
+import mexica.core.EmotionType;
+import mexica.core.TensionType;
+
+/**
+ * Known facts of a character's context.<br>
+ * The facts keep their insertion order, and are indexed by their condition type, their first character
+ * and their emotion or tension type, so the facts that can be equal, equivalent or defeatable with a given
+ * condition are found without comparing the whole context.
+ * The index only selects candidates, ConditionComparer still determines the relation between conditions.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+class FactStore {
+    /** Tensions that ConditionComparer may consider defeatable with each tension type, in any direction */
+    private static final Map<TensionType, TensionType> defeatableTensions;
+    /** Orders the facts by their insertion */
+    private static final Comparator<Fact> insertionOrder;
+
+    /** Facts in insertion order */
+    private List<Fact> facts;
+    /** Facts grouped by condition type, first character and emotion or tension type */
+    private Map<List<Object>, List<Fact>> index;
+    private long sequence;
+    private FactList conditions;
+
+    static {
+        defeatableTensions = new EnumMap<>(TensionType.class);
+        addDefeatableTensions(TensionType.PrisonerFree, TensionType.Prisoner);
+        addDefeatableTensions(TensionType.HealthNormal, TensionType.HealthAtRisk);
+        addDefeatableTensions(TensionType.LifeNormal, TensionType.LifeAtRisk);
+        addDefeatableTensions(TensionType.SocialBurdenNormal, TensionType.SocialBurden);
+        addDefeatableTensions(TensionType.SocialDisobedienceNormal, TensionType.SocialDisobedience);
+        addDefeatableTensions(TensionType.SocialThreatNormal, TensionType.SocialThreat);
+
+        insertionOrder = new Comparator<Fact>() {
+            @Override
+            public int compare(Fact f1, Fact f2) {
+                return Long.compare(f1.sequence, f2.sequence);
+            }
+        };
+    }
+
+    private static void addDefeatableTensions(TensionType normal, TensionType tension) {
+        defeatableTensions.put(normal, tension);
+        defeatableTensions.put(tension, normal);
+    }
+
+    FactStore() {
+        facts = new ArrayList<>();
+        index = new HashMap<>();
+        conditions = new FactList();
+    }
+
+    /**
+     * Copies the given store, the facts are shared since a condition isn't modified once is known
+     * @param store
+     */
+    FactStore(FactStore store) {
+        facts = new ArrayList<>(store.facts);
+        index = new HashMap<>();
+        for (Map.Entry<List<Object>, List<Fact>> entry : store.index.entrySet()) {
+            index.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        sequence = store.sequence;
+        conditions = new FactList();
+    }
+
+    /**
+     * @return A read only list with the facts in insertion order
+     */
+    List<ConditionInstantiated> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Adds the condition after the known facts
+     * @param condition
+     */
+    void add(ConditionInstantiated condition) {
+        Fact fact = new Fact(condition, sequence++);
+        facts.add(fact);
+        List<Object> key = obtainKey(condition.getType(), condition.getCharacterA(), obtainSubtype(condition));
+        List<Fact> bucket = index.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            index.put(key, bucket);
+        }
+        bucket.add(fact);
+        conditions.modified();
+    }
+
+    /**
+     * Removes the given condition from the known facts
+     * @param condition
+     * @return The fact that now occupies the position of the removed one, or null if it was the last fact
+     */
+    ConditionInstantiated remove(ConditionInstantiated condition) {
+        List<Object> key = obtainKey(condition.getType(), condition.getCharacterA(), obtainSubtype(condition));
+        List<Fact> bucket = index.get(key);
+        Fact fact = null;
+        if (bucket != null) {
+            for (Iterator<Fact> it = bucket.iterator(); it.hasNext() && fact == null;) {
+                Fact f = it.next();
+                if (f.condition == condition) {
+                    fact = f;
+                    it.remove();
+                }
+            }
+            if (bucket.isEmpty())
+                index.remove(key);
+        }
+        if (fact == null)
+            return null;
+
+        int position = Collections.binarySearch(facts, fact, insertionOrder);
+        facts.remove(position);
+        conditions.modified();
+        return (position < facts.size()) ? facts.get(position).condition : null;
+    }
+
+    /**
+     * Obtains the facts that can be equal, equivalent or defeatable with the given condition.<br>
+     * All of them have a first character equivalent to the one of the condition, and an emotion or tension related to it.
+     * When the condition employs a wildcard character or any emotion, all the facts are returned
+     * @param condition
+     * @return A list of facts in insertion order
+     */
+    List<ConditionInstantiated> obtainCandidates(ConditionInstantiated condition) {
+        CharacterName character = condition.getCharacterA();
+        Object subtype = obtainSubtype(condition);
+        if (isWildcard(character) || condition.getType() == ConditionType.Position || subtype == EmotionType.getAnyEmotion())
+            return new ArrayList<>(conditions);
+
+        List<Object> subtypes = new ArrayList<>(2);
+        subtypes.add(subtype);
+        switch (condition.getType()) {
+            case Emotion:
+                subtypes.add(EmotionType.getAnyEmotion());
+                break;
+            case Tension:
+                TensionType defeatable = defeatableTensions.get(subtype);
+                if (defeatable != null)
+                    subtypes.add(defeatable);
+                break;
+        }
+
+        List<Fact> candidates = new ArrayList<>();
+        int buckets = 0;
+        for (CharacterName name : new CharacterName[] {character, CharacterName.Any_Character, CharacterName.Not_Defined}) {
+            for (Object type : subtypes) {
+                List<Fact> bucket = index.get(obtainKey(condition.getType(), name, type));
+                if (bucket != null) {
+                    candidates.addAll(bucket);
+                    buckets++;
+                }
+            }
+        }
+        if (buckets > 1)
+            Collections.sort(candidates, insertionOrder);
+
+        List<ConditionInstantiated> list = new ArrayList<>(candidates.size());
+        for (Fact fact : candidates) {
+            list.add(fact.condition);
+        }
+        return list;
+    }
+
+    private static boolean isWildcard(CharacterName name) {
+        return name == CharacterName.Any_Character || name == CharacterName.Not_Defined;
+    }
+
+    private static Object obtainSubtype(ConditionInstantiated condition) {
+        switch (condition.getType()) {
+            case Emotion:
+                return condition.getCondition().getEmotion();
+            case Tension:
+                return condition.getCondition().getTension();
+            default:
+                return null;
+        }
+    }
+
+    private static List<Object> obtainKey(ConditionType type, CharacterName character, Object subtype) {
+        return Arrays.<Object>asList(type, character, subtype);
+    }
+
+    /**
+     * Known condition and its position in the insertion order
+     */
+    private static class Fact {
+        private final ConditionInstantiated condition;
+        private final long sequence;
+
+        Fact(ConditionInstantiated condition, long sequence) {
+            this.condition = condition;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Read only view of the facts. The iterators fail when the store is modified, as the ones of an ArrayList
+     */
+    private class FactList extends AbstractList<ConditionInstantiated> implements RandomAccess {
+        @Override
+        public ConditionInstantiated get(int index) {
+            return facts.get(index).condition;
+        }
+
+        @Override
+        public int size() {
+            return facts.size();
+        }
+
+        void modified() {
+            modCount++;
+        }
+    }
+}
@@ -20,6 +20,18 @@ public class SocialData {
         justifiedContexts = EnumSet.noneOf(CharacterName.class);
         socialStatus = SocialStatus.regularAction;
     }
+    
+    /**
+     * Copies the given social data
+     * @param socialData 
+     */
+    public SocialData(SocialData socialData) {
+        this();
+        socialStatus = socialData.socialStatus;
+        socialAction = socialData.socialAction;
+        brokenContexts.addAll(socialData.brokenContexts);
+        justifiedContexts.addAll(socialData.justifiedContexts);
+    }
 
     /**
      * @return the socialStatus
@@ -91,6 +103,21 @@ public class SocialData {
         return (socialStatus == SocialStatus.breakSocialNorm || socialStatus == SocialStatus.specialSocialNorm);
     }
     
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof SocialData) {
+            SocialData data = (SocialData)obj;
+            return socialStatus == data.socialStatus && socialAction == data.socialAction &&
+                   brokenContexts.equals(data.brokenContexts) && justifiedContexts.equals(data.justifiedContexts);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(socialStatus, brokenContexts, justifiedContexts);
+    }
+    
     @Override
     public String toString() {
         String text;
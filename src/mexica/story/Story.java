@@ -8,11 +8,12 @@ import mexica.CharacterName;
 import mexica.MexicaParameters;
 import mexica.MexicaRepository;
 import mexica.core.Action;
-import mexica.core.CompositeAction;
 import mexica.core.Position;
 import mexica.reflection.Guideline;
 import mexica.reflection.Guidelines;
+import mexica.story.analyzer.FinalStoryAnalyzer;
 import mexica.story.filter.StoryFilterException;
+import mexica.story.guidelines.StoryTension;
 import mexica.story.log.StoryLog;
 import mexica.tools.AvatarFactory;
 import mexica.tools.InvalidCharacterException;
@@ -33,16 +34,29 @@ public class Story extends StoryContextListener {
     private Guidelines guidelines;
     /** Repository of the elements employed for the current story */
     private ElementsEmployed repository;
+    /** Analyzer of the tensions solved and the special tensions triggered in the story */
+    private FinalStoryAnalyzer storyAnalyzer;
     /** Metadata of the current story */
     private StoryMeta storyMeta;
     /** Object to store all the story generation information */
     private StoryGenerationLog storyLog;
+    /** Journals of the last actions added in engagement mode, and the journal of the action being added */
+    private List<StoryJournal> journals;
+    private StoryJournal journal;
+    /** TRUE when the current state is the one obtained performing again all the actions from the beginning */
+    private boolean replayed;
+    /** Number of modifications of the characters and their contexts */
+    private int modifications;
+    /** Values of MexicaParameters overridden for this story while it is generated, null when not overridden */
+    private Boolean storyExceptions, illogicalActions, partialCharacterInstantiation;
     
     /**
      * Initializes the arrays for actions, characters, missing conditions and story text
      */
     public Story() {
         storyLog = new StoryGenerationLog();
+        journals = new ArrayList<>();
+        replayed = true;
         avatarFactory = new AvatarFactory(this);
         storyData = new StoryDAO();
         storyMeta = new StoryMeta();
@@ -52,6 +66,45 @@ public class Story extends StoryContextListener {
         guidelines.addGuideline(mexica.reflection.Guideline.tendencyNeutral);
         repository = new ElementsEmployed();
         addStoryContextListener(repository, IStoryContextListener.ListType.Actions);
+        storyAnalyzer = MexicaRepository.getInstance().createStoryAnalyzer();
+    }
+    
+    /**
+     * Creates a story with the same state as the given one, see fork
+     * @param story 
+     */
+    private Story(Story story) {
+        storyLog = new StoryGenerationLog();
+        journals = new ArrayList<>();
+        replayed = story.replayed;
+        avatarFactory = new AvatarFactory(this, story.avatarFactory);
+        storyData = new StoryDAO(story.storyData);
+        storyMeta = new StoryMeta();
+        helper = new StoryHelper(this);
+        guidelines = (story.guidelines instanceof SlantGuidelines) ? 
+                new SlantGuidelines(this, (SlantGuidelines)story.guidelines) : new Guidelines(this, story.guidelines);
+        setStoryID(story.getStoryID());
+        setStoryName(story.getStoryName());
+        setFinished(story.isFinished(), story.getFinishingReason());
+        storyMeta.setImpasses(story.getImpasses());
+        repository = new ElementsEmployed(story.repository);
+        addStoryContextListener(repository, IStoryContextListener.ListType.Actions);
+        storyAnalyzer = new FinalStoryAnalyzer(story.storyAnalyzer);
+        storyExceptions = story.storyExceptions;
+        illogicalActions = story.illogicalActions;
+        partialCharacterInstantiation = story.partialCharacterInstantiation;
+    }
+    
+    /**
+     * Obtains a new story with the same actions, characters and guidelines (including the Slant prohibitions), to explore a different continuation.<br>
+     * The actions, the text and the facts and tensions known by the characters are shared with the new story 
+     * until one of them is modified; an action is copied when its social data is updated.
+     * The number of impasses is kept to end the new story as the original one.
+     * The story analyzer and the parameters overridden for the story are copied, while the listeners and the generation log are not
+     * @return The new story
+     */
+    public Story fork() {
+        return new Story(this);
     }
     
     /**
@@ -60,11 +113,8 @@ public class Story extends StoryContextListener {
      * @param cleanActions If TRUE removes all the actions from the actions list
      */
     public void restart(boolean notify, boolean cleanActions) {
-        storyData.restart(cleanActions);
-        avatarFactory.restart();
-        if (cleanActions)
-            repository.restart();
-        MexicaRepository.getInstance().getStoryAnalyzer().restart();
+        restartData(cleanActions);
+        storyAnalyzer.restart();
         
         if (notify) {
             notifyListeners(IStoryContextListener.ListType.Tensions);
@@ -77,18 +127,47 @@ public class Story extends StoryContextListener {
         }
     }
     
+    /**
+     * Resets the actions, characters and story data, without restarting the story analyzer
+     * @param cleanActions If TRUE removes all the actions from the actions list
+     */
+    private void restartData(boolean cleanActions) {
+        journals.clear();
+        journal = null;
+        replayed = cleanActions;
+        storyData.restart(cleanActions);
+        avatarFactory.restart();
+        if (cleanActions)
+            repository.restart();
+    }
+    
     /**
      * Adds a new action to the story and instantiates it before the previous action
      * NOTE: When an action is added in previous stages of the story all the character contexts
-     *  are recalculated
+     *  are recalculated. The listeners are notified once per type after the action is added
      * @param followingAction The action with the missing condition
      * @param action The action selected to fulfill the missing condition
      * @param avatars The characters to instantiate the new action
      */
-    public ActionInstantiated addAction(ActionInstantiated followingAction, Action action, CharacterName... avatars) 
+    public ActionInstantiated addAction(ActionInstantiated followingAction, Action action, CharacterName... avatars)
+            throws InvalidCharacterException, DeadAvatarException, StoryFilterException {
+        beginTransaction();
+        try {
+            return performAddAction(followingAction, action, avatars);
+        } finally {
+            commitTransaction();
+        }
+    }
+    
+    /**
+     * Adds a new action before the given action, the listeners are notified when the outermost action is added
+     */
+    private ActionInstantiated performAddAction(ActionInstantiated followingAction, Action action, CharacterName... avatars) 
             throws InvalidCharacterException, DeadAvatarException, StoryFilterException {
         ActionInstantiated newAction = null;
         
+        //The actions are performed again updating their social data, so those shared with a fork are copied
+        storyData.copySharedActions();
         //Stores the current list of actions. In case an error occurs, the actions are restablished
         List<ActionInstantiated> actionsBackup = new ArrayList<>();
         for (ActionInstantiated ins : storyData.getActions()) {
@@ -96,44 +175,36 @@ public class Story extends StoryContextListener {
         }
         
         try {
-            //Assigns the avatar factory in case the action is composite
-            if (action instanceof CompositeAction) {
-                CompositeAction composite = (CompositeAction)action;
-                composite.setAvatarFactory(avatarFactory);
-                newAction = new ActionInstantiated(composite, avatars);
-            }
-            else {
-                newAction = new ActionInstantiated(action, avatars);
-            }
+            //The avatar factory is employed in case the action is composite
+            newAction = new ActionInstantiated(action, avatarFactory, avatars);
             
             newAction.setInsertionMode(InsertionMode.Reflection);
             newAction.setNewCharacterPosition(getAvatarFactory());
             
             int index = storyData.getActions().indexOf(followingAction);
             storyData.addAction(index, newAction);
-            restart(false, false);
-            helper.applyActions();
+            replayActions();
             repository.addAction(newAction);
             notifyListeners(IStoryContextListener.ListType.Conditions);
             notifyListeners(IStoryContextListener.ListType.Characters);
         } catch (DeadAvatarException | StoryFilterException ex) {
             storyData.setActions(actionsBackup);
-            restart(false, false);
-            helper.applyActions();
+            replayActions();
             throw ex;
         } catch (InvalidCharacterException ice) {
             storyData.setActions(actionsBackup);
-            restart(false, false);
-            helper.applyActions();
+            replayActions();
             Action act = MexicaRepository.getInstance().getActions().getChangePositionAction();
             //Since the inserted action, originates characters in different locations, 
             //retry the action and move the characters of the following action to the same location
-            boolean storyExceptions = MexicaParameters.ENABLE_STORY_EXCEPTIONS;
-            MexicaParameters.ENABLE_STORY_EXCEPTIONS = false;
-            newAction = addAction(followingAction, action, avatars);
-            MexicaParameters.ENABLE_STORY_EXCEPTIONS = storyExceptions;
+            Boolean storyExceptions = overrideStoryExceptions(false);
+            try {
+                newAction = performAddAction(followingAction, action, avatars);
+            } finally {
+                overrideStoryExceptions(storyExceptions);
+            }
             //If characters are not in the same location, add an action to locate them on the same place
-            addAction(followingAction, act, followingAction.getCharactersList().toArray(new CharacterName[0]));
+            performAddAction(followingAction, act, followingAction.getCharactersList().toArray(new CharacterName[0]));
             StoryLog.addMessage(this, "(R) Action added to match characters' location: " + act + " " + followingAction);
             //Logger.getGlobal().log(Level.INFO, "Action added to match characters' location: {0}-{1}", new Object[]{act, followingAction});
         }
@@ -147,24 +218,31 @@ public class Story extends StoryContextListener {
     /**
      * Adds a new action to the story and instantiates it with the selected characters
      * Also the action is analyzed and missing conditions, facts and tensions are updated
-     *  for every selected character
+     *  for every selected character. The listeners are notified once per type after the action is added
      * @param action Action to be added to the story
      * @param avatars Selected characters to perform the action
      */
     public ActionInstantiated addAction(Action action, CharacterName... avatars)
             throws InvalidCharacterException, DeadAvatarException, StoryFilterException {
-        ActionInstantiated newAction;
-        if (action instanceof CompositeAction) {
-            CompositeAction composite = (CompositeAction)action;
-            composite.setAvatarFactory(avatarFactory);
-            newAction = new ActionInstantiated(composite, avatars);
+        beginTransaction();
+        try {
+            return performAddAction(action, avatars);
+        } finally {
+            commitTransaction();
         }
-        else
-            newAction = new ActionInstantiated(action, avatars);
+    }
+    
+    private ActionInstantiated performAddAction(Action action, CharacterName... avatars)
+            throws InvalidCharacterException, DeadAvatarException, StoryFilterException {
+        ActionInstantiated newAction;
+        newAction = new ActionInstantiated(action, avatarFactory, avatars);
         
         newAction.setInsertionMode((storyData.getActions().isEmpty()) ? InsertionMode.InitialAction : InsertionMode.Engagement);
         //Saves the current state of the avatars
         avatarFactory.saveToMemento();
+        //Records the changes performed by the action, so it can be removed without performing again the story
+        openJournal(newAction);
+        replayed = false;
         
         try {
             //If the action is realised, is not necessary to validate if the characters of the composite action are valid
@@ -189,7 +267,11 @@ public class Story extends StoryContextListener {
         } catch (DeadAvatarException | InvalidCharacterException | StoryFilterException e) {
             //Restablish the avatars previous to the action application
             Logger.getGlobal().log(Level.INFO, e.getMessage());
+            boolean restored = avatarFactory.getLastMemento() != null;
             avatarFactory.restoreFromMemento();
+            //If the avatars were restablished and the story data wasn't modified, the story remains as before
+            replayed = restored && journal != null && journal.isUnchanged();
+            closeJournal(false);
             throw e; //TODO: Throw the exception but notifying that has been corrected, restoring the previous state
         }
         
@@ -203,35 +285,152 @@ public class Story extends StoryContextListener {
         
         //Notifies that the story has been updated
         notifyListeners(IStoryContextListener.ListType.StoryUpdated);
+        closeJournal(true);
         
         return newAction;
     }
     
     /**
-     * 
+     * Evaluates the result of adding an action to the story.<br>
+     * The action is added to a fork of the story, which shares the state of the story until it is modified,
+     * so the story and its listeners are not affected and only the elements modified by the action are copied.
+     * The fork keeps the guidelines of the story, including the Slant prohibitions, 
+     * so the action is rejected by the same filters that would reject it when added to the story
+     * @param action Action to be evaluated
+     * @param avatars Selected characters to perform the action
+     * @return The facts, missing conditions and social status obtained, or the reason why the action cannot be added
+     */
+    public ActionEvaluation evaluate(Action action, CharacterName... avatars) {
+        Story overlay = fork();
+        try {
+            ActionInstantiated newAction = overlay.addAction(action, avatars);
+            return new ActionEvaluation(overlay, newAction, avatars);
+        } catch (InvalidCharacterException | DeadAvatarException | StoryFilterException ex) {
+            return new ActionEvaluation(action, ex, avatars);
+        }
+    }
+    
+    /**
+     * Starts recording the changes of the action being added
+     * @param action 
+     */
+    private void openJournal(ActionInstantiated action) {
+        //A journal still open means that the previous action wasn't added completely
+        if (journal != null)
+            closeJournal(false);
+        journal = (MexicaParameters.ENABLE_STORY_JOURNAL) ? new StoryJournal(this, action, replayed) : null;
+    }
+    
+    /**
+     * Stops recording the changes of the action being added
+     * @param valid If FALSE the action wasn't added, so the previous journals are not valid anymore
+     */
+    private void closeJournal(boolean valid) {
+        if (valid && journal != null)
+            journals.add(journal);
+        else
+            journals.clear();
+        journal = null;
+    }
+    
+    /**
+     * Counts a modification of a character or its context
+     */
+    void recordModification() {
+        modifications++;
+    }
+    
+    /**
+     * Obtains the number of modifications of the characters and their contexts since the story was created,
+     * employed to determine if an analysis modified the story
+     * @return 
+     */
+    public int getModifications() {
+        return modifications;
+    }
+    
+    /**
+     * Obtains the journal of the action being added in engagement mode
+     * @return The journal or null if no action is being added
+     */
+    StoryJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Removes the last action added in engagement mode restablishing only the elements modified by it.<br>
+     * The journal is employed only when the story was replayed before adding the action,
+     * so the result is the same as performing again the rest of the actions
+     * @param action The action to be removed
+     * @return TRUE if the action was removed, FALSE if the story must be performed again
+     */
+    private boolean undoAction(ActionInstantiated action) {
+        if (journal != null)
+            closeJournal(false);
+        if (journals.isEmpty())
+            return false;
+        StoryJournal last = journals.get(journals.size()-1);
+        if (last.getAction() != action || !last.canUndo()) {
+            journals.clear();
+            return false;
+        }
+        journals.remove(journals.size()-1);
+        last.undo();
+        replayed = true;
+        return true;
+    }
+    
+    /**
+     * Restarts the story and performs again all its actions.<br>
+     * The story analyzer is restablished by the helper, from the checkpoint employed or from the beginning
+     * @throws InvalidCharacterException
+     * @throws DeadAvatarException
+     * @throws StoryFilterException 
+     */
+    private void replayActions() throws InvalidCharacterException, DeadAvatarException, StoryFilterException {
+        restartData(false);
+        helper.applyActions();
+        replayed = true;
+    }
+    
+    /**
+     * Removes the action from the story, the listeners are notified once per type after the action is removed
      * @param action Action to be removed from the story
      * @throws InvalidCharacterLocationsException
      * @throws DeadAvatarException
      */
     public void removeAction(ActionInstantiated action) 
             throws InvalidCharacterException, DeadAvatarException, StoryFilterException {
-        List<ActionInstantiated> actionsBackup = new ArrayList<>();
-        for (ActionInstantiated ins : storyData.getActions()) {
-            actionsBackup.add(ins);
+        beginTransaction();
+        try {
+            performRemoveAction(action);
+        } finally {
+            commitTransaction();
         }
+    }
+    
+    private void performRemoveAction(ActionInstantiated action) 
+            throws InvalidCharacterException, DeadAvatarException, StoryFilterException {
+        List<ActionInstantiated> actionsBackup = new ArrayList<>();
         
         try {
-            storyData.getActions().remove(action);
-            restart(false, false);
-            helper.applyActions();
+            if (!undoAction(action)) {
+                //The actions are performed again updating their social data, so those shared with a fork are copied
+                storyData.copySharedActions();
+                //Stores the current list of actions. In case an error occurs, the actions are restablished
+                for (ActionInstantiated ins : storyData.getActions()) {
+                    actionsBackup.add(ins);
+                }
+                storyData.removeAction(action);
+                replayActions();
+            }
             repository.removeAction(action);
             notifyListeners(IStoryContextListener.ListType.Conditions);
             notifyListeners(IStoryContextListener.ListType.Characters);
             Logger.getGlobal().log(Level.INFO, "Action removed {0}", action);
         } catch (InvalidCharacterException | DeadAvatarException | StoryFilterException icle) {
             storyData.setActions(actionsBackup);
-            restart(false, false);
-            helper.applyActions();
+            replayActions();
             throw icle;
         }
         
@@ -299,6 +498,25 @@ public class Story extends StoryContextListener {
         storyData.setCurrentYear(year);
     }
     
+    /**
+     * Obtains the number of active tensions after each action of the story.<br>
+     * The tensions are stored when the actions are performed, so the story is not performed again
+     * @return The tension vector, with the tension of the first year in the index zero
+     */
+    public StoryTension getTensionVector() {
+        return storyData.getTensionVector();
+    }
+    
+    /**
+     * Obtains the action in the given position to update its social data.<br>
+     * An action shared with a fork of the story is replaced by a copy, so the fork isn't modified
+     * @param index
+     * @return 
+     */
+    public ActionInstantiated getModifiableAction(int index) {
+        return storyData.getOwnAction(index);
+    }
+    
     /**
      * Establishes the current year to the year where the given action was added
      * @param action An action with unsatisfied preconditions
@@ -319,10 +537,71 @@ public class Story extends StoryContextListener {
         return repository;
     }
     
+    /**
+     * @return The analyzer of the tensions solved and the special tensions triggered in the story
+     */
+    public FinalStoryAnalyzer getStoryAnalyzer() {
+        return storyAnalyzer;
+    }
+    
     public AvatarFactory getAvatarFactory() {
         return avatarFactory;
     }
 
+    /**
+     * @return The value of ENABLE_STORY_EXCEPTIONS employed in this story
+     */
+    public boolean isStoryExceptionsEnabled() {
+        return (storyExceptions != null) ? storyExceptions : MexicaParameters.ENABLE_STORY_EXCEPTIONS;
+    }
+    
+    /**
+     * Overrides the value of ENABLE_STORY_EXCEPTIONS for this story, the rest of the stories are not affected
+     * @param enabled The value employed in this story, null to employ the one in MexicaParameters
+     * @return The value previously overridden, to restore it afterwards
+     */
+    public Boolean overrideStoryExceptions(Boolean enabled) {
+        Boolean previous = storyExceptions;
+        storyExceptions = enabled;
+        return previous;
+    }
+    
+    /**
+     * @return The value of ENABLE_ILLOGICAL_ACTIONS employed in this story
+     */
+    public boolean isIllogicalActionsEnabled() {
+        return (illogicalActions != null) ? illogicalActions : MexicaParameters.ENABLE_ILLOGICAL_ACTIONS;
+    }
+    
+    /**
+     * Overrides the value of ENABLE_ILLOGICAL_ACTIONS for this story, the rest of the stories are not affected
+     * @param enabled The value employed in this story, null to employ the one in MexicaParameters
+     * @return The value previously overridden, to restore it afterwards
+     */
+    public Boolean overrideIllogicalActions(Boolean enabled) {
+        Boolean previous = illogicalActions;
+        illogicalActions = enabled;
+        return previous;
+    }
+    
+    /**
+     * @return The value of PARTIAL_CHARACTER_INSTANTIATION employed in this story
+     */
+    public boolean isPartialCharacterInstantiationEnabled() {
+        return (partialCharacterInstantiation != null) ? partialCharacterInstantiation : MexicaParameters.PARTIAL_CHARACTER_INSTANTIATION;
+    }
+    
+    /**
+     * Overrides the value of PARTIAL_CHARACTER_INSTANTIATION for this story, the rest of the stories are not affected
+     * @param enabled The value employed in this story, null to employ the one in MexicaParameters
+     * @return The value previously overridden, to restore it afterwards
+     */
+    public Boolean overridePartialCharacterInstantiation(Boolean enabled) {
+        Boolean previous = partialCharacterInstantiation;
+        partialCharacterInstantiation = enabled;
+        return previous;
+    }
+    
     public StoryDAO getStoryData() {
         return storyData;
     }
@@ -0,0 +1,62 @@
+package mexica.story;
+
+import java.util.*;
+import mexica.story.analyzer.FinalStoryAnalyzer;
+import mexica.story.guidelines.StoryTension;
+
+/**
+ * State of the story after performing some of its actions in reflection mode.<br>
+ * Contains the characters (with their contexts and positions), the missing conditions, the story text,
+ * the tension vector and the number of tensions found by the story analyzer, so the story can be restablished 
+ * at this point without performing again all the previous actions.
+ * The story analyzer only appends tensions while the actions are performed, so the tensions found after the
+ * checkpoint are removed instead of storing a copy of them.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+class StoryCheckpoint {
+    /** Number of actions performed before the checkpoint */
+    private int actionCount;
+    private int currentYear;
+    private List<ConditionInstantiated> missingConditions;
+    private List<TextInstantiated> storyText;
+    private StoryTension tensionVector;
+    private List<Avatar> characters;
+    private int tensionsSolvedCount, specialTensionsCount;
+    
+    /**
+     * Stores the current state of the story
+     * @param story
+     * @param actionCount The number of actions performed
+     */
+    StoryCheckpoint(Story story, int actionCount) {
+        this.actionCount = actionCount;
+        StoryDAO storyData = story.getStoryData();
+        currentYear = storyData.getCurrentYear();
+        missingConditions = new ArrayList<>(storyData.getMissingConditions());
+        storyText = new ArrayList<>(storyData.getStoryText());
+        tensionVector = storyData.getTensionVector();
+        characters = story.getAvatarFactory().copyCharacters();
+        FinalStoryAnalyzer storyAnalyzer = story.getStoryAnalyzer();
+        tensionsSolvedCount = storyAnalyzer.getTensionsSolvedCount();
+        specialTensionsCount = storyAnalyzer.getSpecialTensionsCount();
+    }
+    
+    int getActionCount() {
+        return actionCount;
+    }
+    
+    /**
+     * Restablishes the story to the state of the checkpoint.<br>
+     * The checkpoint is not modified, so it can be restored several times
+     * @param story 
+     */
+    void restore(Story story) {
+        StoryDAO storyData = story.getStoryData();
+        storyData.setCurrentYear(currentYear);
+        storyData.setMissingConditions(new ArrayList<>(missingConditions));
+        storyData.setStoryText(new ArrayList<>(storyText));
+        storyData.setTensionVector(tensionVector);
+        story.getAvatarFactory().restoreCharacters(characters);
+        story.getStoryAnalyzer().removeTensions(tensionsSolvedCount, specialTensionsCount);
+    }
+}
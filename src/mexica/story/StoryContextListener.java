@@ -3,12 +3,18 @@ package mexica.story;
 import java.util.*;
 
 /**
- *
+ * Class to notify the listeners of the elements of a story.<br>
+ * The notifications can be grouped in transactions: meanwhile a transaction is open, only the types of notification
+ * are stored, and each listener is notified once per type when the transaction is committed
  * @author Ivan Guerrero (UNAM, Mexico)
  */
 public class StoryContextListener {
     private List<IStoryContextListener> factListeners, charListeners, conditionListeners, 
             storyListeners, actionListeners, tensionListeners, storyUpdatedListeners;
+    /** Number of transactions open */
+    private int transactions;
+    /** Types of notification received during the transaction, in the order they were received */
+    private Set<IStoryContextListener.ListType> pendingTypes;
     
     public StoryContextListener() {
         factListeners = new ArrayList<>();
@@ -46,7 +52,45 @@ public class StoryContextListener {
         }
     }
     
+    /**
+     * Notifies the listeners of the given type, or stores the type until the transaction is committed
+     * @param type 
+     */
     public void notifyListeners(IStoryContextListener.ListType type) {
+        if (transactions > 0)
+            pendingTypes.add(type);
+        else
+            fireListeners(type);
+    }
+    
+    /**
+     * Opens a transaction. The notifications received until the transaction is committed are grouped,
+     * so each listener is notified only once per type.<br>
+     * Transactions can be nested, the listeners are notified when the outermost transaction is committed
+     */
+    public void beginTransaction() {
+        if (pendingTypes == null)
+            pendingTypes = new LinkedHashSet<>();
+        transactions++;
+    }
+    
+    /**
+     * Closes the transaction opened with beginTransaction.<br>
+     * If it is the outermost transaction, notifies the listeners of each type received meanwhile
+     */
+    public void commitTransaction() {
+        if (transactions == 0)
+            return;
+        transactions--;
+        while (transactions == 0 && !pendingTypes.isEmpty()) {
+            Iterator<IStoryContextListener.ListType> iterator = pendingTypes.iterator();
+            IStoryContextListener.ListType type = iterator.next();
+            iterator.remove();
+            fireListeners(type);
+        }
+    }
+    
+    private void fireListeners(IStoryContextListener.ListType type) {
         List<IStoryContextListener> list = null;
         switch (type) {
             case Characters:
@@ -75,4 +119,4 @@ public class StoryContextListener {
             listener.notifyListener(type);
         }
     }
-}
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package mexica.story;
 
 import java.util.*;
+import mexica.story.guidelines.StoryTension;
 
 /**
  *  Class that stores all the data related to a story
@@ -10,16 +11,67 @@ public class StoryDAO {
     private List<ActionInstantiated> actions;
     private List<ConditionInstantiated> missingConditions;
     private List<TextInstantiated> storyText;
+    /** Number of active tensions after each action of the story */
+    private StoryTension tensionVector;
     private int currentYear = 1;
     private int actionID = 1;
+    /** TRUE when the lists and the tension vector are shared with a copy of the story data, so they are copied before being modified */
+    private boolean shared;
+    /** 
+     * Actions that can be modified by this story data, the rest are shared with a copy and are copied before their social data is modified.
+     * NULL while the story data hasn't been copied, since all the actions are its own
+     */
+    private Set<ActionInstantiated> ownActions;
+    /** Views of the lists, since the lists are replaced when a shared story data is modified */
+    private final List<ActionInstantiated> actionsView = new DataList<ActionInstantiated>() {
+        @Override
+        List<ActionInstantiated> list() {
+            return actions;
+        }
+    };
+    private final List<ConditionInstantiated> missingConditionsView = new DataList<ConditionInstantiated>() {
+        @Override
+        List<ConditionInstantiated> list() {
+            return missingConditions;
+        }
+    };
+    private final List<TextInstantiated> storyTextView = new DataList<TextInstantiated>() {
+        @Override
+        List<TextInstantiated> list() {
+            return storyText;
+        }
+    };
     
     public StoryDAO() {
         actions = new ArrayList<>();
         missingConditions = new ArrayList<>();
         storyText = new ArrayList<>();
+        tensionVector = new StoryTension();
+        tensionVector.setStoryID(-1);
+    }
+    
+    /**
+     * Copies the given story data sharing the actions, the missing conditions, the text and the tension vector.<br>
+     * The lists of both story data are shared until one of them is modified. 
+     * The actions are shared as well, an action is copied by the story data that modifies its social data
+     * @param storyData 
+     */
+    StoryDAO(StoryDAO storyData) {
+        actions = storyData.actions;
+        missingConditions = storyData.missingConditions;
+        storyText = storyData.storyText;
+        tensionVector = storyData.tensionVector;
+        currentYear = storyData.currentYear;
+        actionID = storyData.actionID;
+        shared = true;
+        storyData.shared = true;
+        //The current actions are shared, so none of them belongs to any of the story data
+        ownActions = Collections.newSetFromMap(new IdentityHashMap<ActionInstantiated, Boolean>());
+        storyData.ownActions = Collections.newSetFromMap(new IdentityHashMap<ActionInstantiated, Boolean>());
     }
     
     public void restart(boolean cleanActions) {
+        recordChange();
         if (cleanActions) {
             setActions(new ArrayList<ActionInstantiated>());
             actionID = 1;
@@ -27,29 +79,107 @@ public class StoryDAO {
         
         setMissingConditions(new ArrayList<ConditionInstantiated>());
         setStoryText(new ArrayList<TextInstantiated>());
+        tensionVector.removeTensions(0);
         setCurrentYear(1);
     }
     
+    /**
+     * @return A read only view of the actions that reflects the following changes of the story
+     */
     public List<ActionInstantiated> getActions() {
-        return actions;
+        return actionsView;
+    }
+    
+    /**
+     * Obtains the action in the given position so its social data can be modified.<br>
+     * If the action is shared with a copy of the story data, it is replaced by a copy
+     * @param index
+     * @return 
+     */
+    ActionInstantiated getOwnAction(int index) {
+        ActionInstantiated action = actions.get(index);
+        if (ownActions != null && !ownActions.contains(action)) {
+            recordChange();
+            action = action.copy();
+            actions.set(index, action);
+            ownActions.add(action);
+        }
+        return action;
+    }
+    
+    /**
+     * Replaces every action shared with a copy of the story data by a copy, before the actions are performed again
+     */
+    void copySharedActions() {
+        for (int i=0; i<actions.size(); i++) {
+            getOwnAction(i);
+        }
     }
     
     public void addAction(int index, ActionInstantiated action) {
+        recordChange();
         action.setActionID(actionID++);
         actions.add(index, action);
+        if (ownActions != null)
+            ownActions.add(action);
     }
     
     public void addAction(ActionInstantiated action) {
-        action.setActionID(actionID++);
-        actions.add(action);
+        addAction(actions.size(), action);
+    }
+    
+    /**
+     * Removes the action in the given position
+     * @param index 
+     */
+    void removeAction(int index) {
+        recordChange();
+        actions.remove(index);
+    }
+    
+    /**
+     * Removes the given action
+     * @param action 
+     * @return TRUE if the action was in the story
+     */
+    boolean removeAction(ActionInstantiated action) {
+        recordChange();
+        return actions.remove(action);
     }
     
+    /**
+     * @return A read only view of the missing conditions that reflects the following changes of the story
+     */
     public List<ConditionInstantiated> getMissingConditions() {
-        return missingConditions;
+        return missingConditionsView;
     }
     
+    /**
+     * @return A read only view of the text that reflects the following changes of the story
+     */
     public List<TextInstantiated> getStoryText() {
-        return storyText;
+        return storyTextView;
+    }
+    
+    /**
+     * Adds a text in the given position of the story text
+     * @param index
+     * @param text 
+     */
+    void addText(int index, TextInstantiated text) {
+        recordChange();
+        storyText.add(index, text);
+    }
+    
+    /**
+     * Removes the missing conditions and the text after the given sizes
+     * @param missingConditionCount
+     * @param textCount 
+     */
+    void truncate(int missingConditionCount, int textCount) {
+        recordChange();
+        missingConditions.subList(missingConditionCount, missingConditions.size()).clear();
+        storyText.subList(textCount, storyText.size()).clear();
     }
     
     /**
@@ -73,7 +203,7 @@ public class StoryDAO {
     /**
      * @param missingConditions the missingConditions to set
      */
-    private void setMissingConditions(List<ConditionInstantiated> missingConditions) {
+    void setMissingConditions(List<ConditionInstantiated> missingConditions) {
         this.missingConditions = missingConditions;
     }
 
@@ -84,11 +214,86 @@ public class StoryDAO {
         this.storyText = storyText;
     }
 
+    /**
+     * Obtains the number of active tensions after each action of the story
+     * @return A copy of the tension vector, the tension of the first year is in the index zero
+     */
+    public StoryTension getTensionVector() {
+        return new StoryTension(tensionVector);
+    }
+
+    /**
+     * @return The number of years with a tension value
+     */
+    int getTensionYears() {
+        return tensionVector.size();
+    }
+
+    /**
+     * Stores the number of active tensions of the given year, replacing the tensions of the following years.<br>
+     * The tensions of the previous years must be already stored
+     * @param year
+     * @param tension 
+     */
+    void setTension(int year, int tension) {
+        recordChange();
+        tensionVector.removeTensions(year-1);
+        tensionVector.addTension(year-1, tension);
+    }
+
+    /**
+     * Removes the tensions from the given year onwards
+     * @param year 
+     */
+    void removeTensions(int year) {
+        recordChange();
+        tensionVector.removeTensions(year-1);
+    }
+
+    /**
+     * @param tensionVector the tension vector to set
+     */
+    void setTensionVector(StoryTension tensionVector) {
+        this.tensionVector = new StoryTension(tensionVector);
+    }
+
     void incrementCurrentYear() {
         currentYear++;
     }
 
     void addMissingCondition(ConditionInstantiated condition) {
+        recordChange();
         missingConditions.add(condition);
     }
+    
+    /**
+     * Called before the story data is modified, so the lists shared with a copy are copied
+     */
+    private void recordChange() {
+        if (shared) {
+            actions = new ArrayList<>(actions);
+            missingConditions = new ArrayList<>(missingConditions);
+            storyText = new ArrayList<>(storyText);
+            tensionVector = new StoryTension(tensionVector);
+            shared = false;
+        }
+    }
+    
+    /**
+     * Read only view of a list of the story data, obtains the current list on each access
+     * instead of keeping a list that may be replaced after a copy of the story data is modified
+     */
+    private abstract static class DataList<E> extends AbstractList<E> implements RandomAccess {
+        abstract List<E> list();
+        
+        @Override
+        public E get(int index) {
+            return list().get(index);
+        }
+
+        @Override
+        public int size() {
+            return list().size();
+        }
+    }
 }
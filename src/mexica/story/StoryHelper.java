@@ -8,6 +8,7 @@ import mexica.MexicaParameters;
 import mexica.MexicaRepository;
 import mexica.core.*;
 import mexica.story.filter.*;
+import mexica.story.guidelines.TensionCurveAnalyzer;
 import mexica.tools.*;
 
 /**
@@ -19,6 +20,12 @@ public class StoryHelper {
     private List<IStoryFilter> storyFilters;
     private AvatarFactory avatarFactory;
     private Story story;
+    /** State of the story every STORY_CHECKPOINT_INTERVAL actions performed in applyActions */
+    private List<StoryCheckpoint> checkpoints;
+    /** Actions performed in applyActions, the checkpoints are valid while these are the first actions of the story */
+    private List<ActionInstantiated> performedActions;
+    /** Parameters employed when the checkpoints were obtained */
+    private List<Object> checkpointParameters;
     
     public StoryHelper(Story story) {
         this.story = story;
@@ -27,6 +34,8 @@ public class StoryHelper {
         storyFilters = new ArrayList<>();
         storyFilters.add(new StoryFlowFilter());
         storyFilters.add(new IllogicalActionFilter());
+        checkpoints = new ArrayList<>();
+        performedActions = new ArrayList<>();
     }
     
     public void performAddAction(ActionInstantiated newAction, CharacterName... avatars) 
@@ -53,17 +62,9 @@ public class StoryHelper {
      * @param condition Missing condition of a given action
      */
     private void addMissingCondition(ConditionInstantiated condition, ActionInstantiated action) {
-        boolean addCondition = true;
         //Validates the missing condition against the context of the character performing the action
         Avatar avatar = avatarFactory.getAvatar(action.getCharactersList().get(0));
-        for (ConditionInstantiated cond : avatar.getContext().getFacts()) {
-            ComparisonResult res = ConditionComparer.compare(cond, condition);
-            if (res.isEqualOrEquivalent(true, true)) {
-                addCondition = false;
-                break;
-            }
-        }
-        if (addCondition) {
+        if (!avatar.getContext().containsCondition(condition)) {
             condition.setAction(action);
             storyData.addMissingCondition(condition);
             story.notifyListeners(IStoryContextListener.ListType.Conditions);
@@ -166,7 +167,7 @@ public class StoryHelper {
             TextInstantiated text = texts.get(index);
             if (text.getText().contains("PENDING TEXT"))
                 text.setText(action.toString() + ".");
-            storyData.getStoryText().add(insertIndex, text);
+            storyData.addText(insertIndex, text);
             story.notifyListeners(IStoryContextListener.ListType.Story);
         }
         else {
@@ -205,27 +206,38 @@ public class StoryHelper {
     
     /**
      * Updates the character tension's list with all the added tensions.<br>
-     * Also store a previous version of the facts.
+     * Also store a previous version of the facts and the number of active tensions in the story.
      */
     public void updateTensionList() {
         for (Avatar avatar : avatarFactory.getActiveCharacters()) {
+            avatar.getContext().recordChange();
             for (ConditionInstantiated cond : avatar.getContext().getFacts()) {
                 avatar.getContext().getAvatarTensions().addTension(story.getCurrentYear()-1, cond);
             }
             avatar.getContext().storePreviousFacts();
         }
+        
+        //Only the year of the last action is missing, unless the current year was modified
+        int year = story.getCurrentYear() - 1;
+        for (int i=Math.max(1, Math.min(storyData.getTensionYears()+1, year)); i<=year; i++) {
+            storyData.setTension(i, TensionCurveAnalyzer.calculateNumberOfTensions(story, i));
+        }
     }
     
     /**
      * Executes all the actions inside the actions list
-     * This method is called when an action is added in reflection mode, since all the context are recalculated
+     * This method is called when an action is added in reflection mode, since all the context are recalculated.<br>
+     * The story is restablished from the last checkpoint whose previous actions haven't changed, 
+     * so only the following actions are executed
      * @throws InvalidCharacterLocationsException
      * @throws DeadAvatarException 
      */
     public void applyActions()
         throws InvalidCharacterException, DeadAvatarException, StoryFilterException {
         
-        for (ActionInstantiated act : storyData.getActions()) {
+        List<ActionInstantiated> actions = storyData.getActions();
+        for (int i=restoreCheckpoint(); i<actions.size(); i++) {
+            ActionInstantiated act = actions.get(i);
             if (MexicaParameters.ENABLE_SOCIAL_ANALYSIS) {
                 //Reset the social norm analysis result
                 act.resetSocialStatus();
@@ -254,7 +266,59 @@ public class StoryHelper {
             avatarFactory.validateAdditionalTensions();
 
             updateTensionList();
+            if (areCheckpointsEnabled()) {
+                performedActions.add(act);
+                if (performedActions.size() % Math.max(1, MexicaParameters.STORY_CHECKPOINT_INTERVAL) == 0)
+                    checkpoints.add(new StoryCheckpoint(story, performedActions.size()));
+            }
+        }
+    }
+    
+    /**
+     * Restablishes the story from the last checkpoint whose previous actions are the same as the current ones.<br>
+     * The checkpoints after the first modified action are discarded. 
+     * Without a valid checkpoint, the story analyzer is restarted to perform all the actions
+     * @return The index of the first action to be executed
+     */
+    private int restoreCheckpoint() {
+        //The checkpoints are valid only if the actions were executed with the same parameters
+        List<Object> parameters = Arrays.<Object>asList(avatarFactory.getDefaultPosition(), 
+                story.isStoryExceptionsEnabled(), story.isIllogicalActionsEnabled(),
+                MexicaParameters.ENABLE_SOCIAL_ANALYSIS, MexicaParameters.ENABLE_SPECIAL_SOCIAL_NORMS, 
+                MexicaParameters.ENABLE_SOCIAL_CHARACTER_ANALYSIS, MexicaParameters.SOCIAL_ACAS_CONSTANT);
+        int index = 0;
+        if (!areCheckpointsEnabled() || !parameters.equals(checkpointParameters)) {
+            checkpoints.clear();
+            performedActions.clear();
+            checkpointParameters = parameters;
         }
+        else {
+            List<ActionInstantiated> actions = storyData.getActions();
+            int validActions = 0;
+            while (validActions < performedActions.size() && validActions < actions.size() && performedActions.get(validActions) == actions.get(validActions))
+                validActions++;
+            int count = checkpoints.size();
+            while (count > 0 && checkpoints.get(count-1).getActionCount() > validActions)
+                count--;
+            checkpoints.subList(count, checkpoints.size()).clear();
+            if (count > 0)
+                index = checkpoints.get(count-1).getActionCount();
+            performedActions.subList(index, performedActions.size()).clear();
+        }
+        
+        if (index > 0)
+            checkpoints.get(checkpoints.size()-1).restore(story);
+        else
+            story.getStoryAnalyzer().restart();
+        return index;
+    }
+    
+    /**
+     * In Slant mode the actions are validated against the current guidelines, so the checkpoints are not employed
+     * @return 
+     */
+    private boolean areCheckpointsEnabled() {
+        return MexicaParameters.ENABLE_STORY_CHECKPOINTS && !MexicaParameters.ENABLE_SLANT_MODE;
     }
 
     /**
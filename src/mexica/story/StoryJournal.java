@@ -0,0 +1,113 @@
+package mexica.story;
+
+import java.util.*;
+import mexica.story.analyzer.FinalStoryAnalyzer;
+
+/**
+ * Journal of the changes performed in the story when an action is added in engagement mode.<br>
+ * Before an avatar or a context is modified for the first time, its state is stored in the journal.
+ * The missing conditions, story text, characters and tensions are only appended while the action is added,
+ * so only their previous sizes are stored.
+ * Removing the action restores only the elements changed by it, instead of performing again all the actions.
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+class StoryJournal {
+    private Story story;
+    private ActionInstantiated action;
+    private int actionCount, missingConditionCount, textCount, characterCount, currentYear;
+    private int tensionsSolvedCount, specialTensionsCount;
+    /** TRUE if the story had been replayed before adding the action */
+    private boolean replayed;
+    /** Previous state of every avatar modified by the action */
+    private Map<Avatar, Avatar> avatars;
+    /** Previous state of every context modified by the action */
+    private Map<AvatarContext, AvatarContext> contexts;
+    
+    /**
+     * Stores the sizes of the story elements before the action is added
+     * @param story
+     * @param action The action to be added
+     * @param replayed TRUE if the current state of the story was obtained performing again all its actions
+     */
+    StoryJournal(Story story, ActionInstantiated action, boolean replayed) {
+        this.story = story;
+        this.action = action;
+        StoryDAO storyData = story.getStoryData();
+        actionCount = storyData.getActions().size();
+        //After performing again the actions, the current year is the following to the last action
+        this.replayed = replayed && storyData.getCurrentYear() == actionCount + 1;
+        missingConditionCount = storyData.getMissingConditions().size();
+        textCount = storyData.getStoryText().size();
+        currentYear = storyData.getCurrentYear();
+        characterCount = story.getAvatarFactory().getCharacterCount();
+        FinalStoryAnalyzer storyAnalyzer = story.getStoryAnalyzer();
+        tensionsSolvedCount = storyAnalyzer.getTensionsSolvedCount();
+        specialTensionsCount = storyAnalyzer.getSpecialTensionsCount();
+        avatars = new IdentityHashMap<>();
+        contexts = new IdentityHashMap<>();
+    }
+    
+    ActionInstantiated getAction() {
+        return action;
+    }
+    
+    /**
+     * Stores the state of the avatar the first time is modified
+     * @param avatar 
+     */
+    void record(Avatar avatar) {
+        if (!avatars.containsKey(avatar))
+            avatars.put(avatar, avatar.copyState());
+    }
+    
+    /**
+     * Stores the state of the context the first time is modified
+     * @param context 
+     */
+    void record(AvatarContext context) {
+        if (!contexts.containsKey(context))
+            contexts.put(context, context.copy());
+    }
+    
+    /**
+     * Determines if the action is the only action added to the story since the journal was created,
+     * and the story had been replayed before, so undoing the action is the same as performing again the story.<br>
+     * The action must be the first of the story equal to it, since is the one removed otherwise
+     * @return 
+     */
+    boolean canUndo() {
+        List<ActionInstantiated> actions = story.getActions();
+        return replayed && actions.size() == actionCount + 1 && actions.indexOf(action) == actionCount && actions.get(actionCount) == action;
+    }
+    
+    /**
+     * Determines if the story had been replayed and its actions, missing conditions, text and year
+     * haven't been modified since the journal was created
+     * @return 
+     */
+    boolean isUnchanged() {
+        StoryDAO storyData = story.getStoryData();
+        return replayed && storyData.getActions().size() == actionCount && 
+               storyData.getMissingConditions().size() == missingConditionCount &&
+               storyData.getStoryText().size() == textCount && storyData.getCurrentYear() == currentYear;
+    }
+    
+    /**
+     * Removes the action and restablishes every element modified by it
+     */
+    void undo() {
+        StoryDAO storyData = story.getStoryData();
+        storyData.removeAction(actionCount);
+        storyData.truncate(missingConditionCount, textCount);
+        storyData.setCurrentYear(currentYear);
+        storyData.removeTensions(currentYear);
+        story.getAvatarFactory().removeCharacters(characterCount);
+        story.getStoryAnalyzer().removeTensions(tensionsSolvedCount, specialTensionsCount);
+        for (Avatar avatar : avatars.keySet()) {
+            avatar.restore(avatars.get(avatar));
+        }
+        for (AvatarContext context : contexts.keySet()) {
+            context.restore(contexts.get(context));
+        }
+    }
+}
@@ -11,30 +11,48 @@ import mexica.story.*;
  */
 public class AvatarTensions implements Cloneable {
     private CharacterName avatar;
-    private Map<Integer, Set<ConditionInstantiated>> tensions;
+    /** 
+     * Years where each tension is known, stored as sorted pairs with the first and last year of every interval.<br>
+     * The intervals are replaced instead of modified, so they can be shared between copies
+     */
+    private Map<ConditionInstantiated, int[]> tensions;
     
     public AvatarTensions(CharacterName avatar) {
         this.avatar = avatar;
-        tensions = new HashMap<>();
+        tensions = new IdentityHashMap<>();
+    }
+    
+    /**
+     * Copies the tensions of every year, sharing the conditions
+     * @param avatarTensions 
+     */
+    public AvatarTensions(AvatarTensions avatarTensions) {
+        this.avatar = avatarTensions.avatar;
+        tensions = new IdentityHashMap<>(avatarTensions.tensions);
     }
     
     public void addTension(int year, ConditionInstantiated condition) {
         if (condition.getType().equals(ConditionType.Tension)) {
-            Set<ConditionInstantiated> list;
-            list = tensions.get(year);
-            if (list == null)
-                list = new HashSet<>();
-            
-            list.add(condition);
-            tensions.put(year, list);
+            int[] intervals = tensions.get(condition);
+            if (intervals == null)
+                tensions.put(condition, new int[] {year, year});
+            else if (!contains(intervals, year))
+                tensions.put(condition, addYear(intervals, year));
         }
     }
     
+    /**
+     * Obtains the tensions known at the given year
+     * @param year
+     * @return A new set with the tensions
+     */
     public Set<ConditionInstantiated> getTensions(int year) {
-        if (tensions.containsKey(year))
-            return tensions.get(year);
-        else
-            return new HashSet<>();
+        Set<ConditionInstantiated> set = new HashSet<>();
+        for (Map.Entry<ConditionInstantiated, int[]> entry : tensions.entrySet()) {
+            if (contains(entry.getValue(), year))
+                set.add(entry.getKey());
+        }
+        return set;
     }
     
     public CharacterName getAvatar() {
@@ -42,18 +60,66 @@ public class AvatarTensions implements Cloneable {
     }
     
     public int getNumberOfTensions(int year) {
-        Set<ConditionInstantiated> data = getTensions(year);
-        return data.size();
+        int count = 0;
+        for (int[] intervals : tensions.values()) {
+            if (contains(intervals, year))
+                count++;
+        }
+        return count;
+    }
+    
+    private static boolean contains(int[] intervals, int year) {
+        for (int i=0; i<intervals.length && intervals[i] <= year; i+=2) {
+            if (year <= intervals[i+1])
+                return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Obtains new intervals including the given year, joining the intervals next to it
+     * @param intervals Intervals that don't contain the year
+     * @param year
+     * @return 
+     */
+    private static int[] addYear(int[] intervals, int year) {
+        int length = intervals.length;
+        int pos = 0;
+        while (pos < length && intervals[pos+1] < year)
+            pos += 2;
+        boolean joinPrevious = pos > 0 && intervals[pos-1] == year-1;
+        boolean joinNext = pos < length && intervals[pos] == year+1;
+        
+        int[] result;
+        if (joinPrevious && joinNext) {
+            result = new int[length-2];
+            System.arraycopy(intervals, 0, result, 0, pos-1);
+            result[pos-1] = intervals[pos+1];
+            System.arraycopy(intervals, pos+2, result, pos, length-pos-2);
+        }
+        else if (joinPrevious) {
+            result = intervals.clone();
+            result[pos-1] = year;
+        }
+        else if (joinNext) {
+            result = intervals.clone();
+            result[pos] = year;
+        }
+        else {
+            result = new int[length+2];
+            System.arraycopy(intervals, 0, result, 0, pos);
+            result[pos] = year;
+            result[pos+1] = year;
+            System.arraycopy(intervals, pos, result, pos+2, length-pos);
+        }
+        return result;
     }
     
     @Override
     public Object clone() {
         AvatarTensions a = new AvatarTensions(avatar);
-        for (Integer key : tensions.keySet()) {
-            Set<ConditionInstantiated> conds = tensions.get(key);
-            for (ConditionInstantiated c : conds) {
-                a.addTension(key, (ConditionInstantiated)c.clone());
-            }
+        for (Map.Entry<ConditionInstantiated, int[]> entry : tensions.entrySet()) {
+            a.tensions.put((ConditionInstantiated)entry.getKey().clone(), entry.getValue());
         }
         
         return a;
@@ -28,6 +28,20 @@ public class FinalStoryAnalyzer {
         restart();
     }
     
+    /**
+     * Copies the tensions of the given analyzer, for a story obtained from the story of the analyzer
+     * @param analyzer 
+     */
+    public FinalStoryAnalyzer(FinalStoryAnalyzer analyzer) {
+        tensionsSolved = new ArrayList<>(analyzer.tensionsSolved);
+        specialTensions = new ArrayList<>(analyzer.specialTensions);
+        specialActions = analyzer.specialActions;
+        healthCounter = analyzer.healthCounter;
+        lifeCounter = analyzer.lifeCounter;
+        clashingCounter = analyzer.clashingCounter;
+        loveCounter = analyzer.loveCounter;
+    }
+    
     public final void restart() {
         tensionsSolved = new ArrayList<TensionHistory>();
         specialTensions = new ArrayList<ConditionInstantiated>();
@@ -37,6 +51,25 @@ public class FinalStoryAnalyzer {
         loveCounter = 0;
     }
     
+    public int getTensionsSolvedCount() {
+        return tensionsSolved.size();
+    }
+    
+    public int getSpecialTensionsCount() {
+        return specialTensions.size();
+    }
+    
+    /**
+     * Removes the tensions added after the given number of tensions solved and special tensions
+     * @param tensionsSolvedCount
+     * @param specialTensionsCount 
+     */
+    public void removeTensions(int tensionsSolvedCount, int specialTensionsCount) {
+        //The analyzer could have been restarted after the sizes were obtained
+        tensionsSolved.subList(Math.min(tensionsSolvedCount, tensionsSolved.size()), tensionsSolved.size()).clear();
+        specialTensions.subList(Math.min(specialTensionsCount, specialTensions.size()), specialTensions.size()).clear();
+    }
+    
     public void setSpecialActions(List<SpecialAction> list) {
         this.specialActions = list;
     }
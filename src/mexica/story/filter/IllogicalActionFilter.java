@@ -28,7 +28,7 @@ public class IllogicalActionFilter implements IStoryFilter {
                     Avatar avatar = story.getAvatarFactory().getAvatar(action.getCharactersList().get(0));
                     AvatarContext context = avatar.getContext();
                     if (context.containsCondition(newCond))
-                        if (MexicaParameters.ENABLE_STORY_EXCEPTIONS && !MexicaParameters.ENABLE_ILLOGICAL_ACTIONS)
+                        if (story.isStoryExceptionsEnabled() && !story.isIllogicalActionsEnabled())
                             throw new StoryFilterException("Illogical action added: " + action + "\nCondition: " + cond);
                 }
             }
@@ -2,7 +2,6 @@ package mexica.story.filter;
 
 import java.util.List;
 import mexica.CharacterName;
-import mexica.MexicaParameters;
 import mexica.core.Position;
 import mexica.core.TensionType;
 import mexica.social.SocialAction;
@@ -71,7 +70,7 @@ public class StoryFlowFilter implements IStoryFilter {
             //}
         }
         
-        if (MexicaParameters.ENABLE_STORY_EXCEPTIONS) {
+        if (story.isStoryExceptionsEnabled()) {
             if (!action.getAction().isNewAction())
                 throw new StoryFlowException("The story already contains all the elements of the action: " + action);
         }
@@ -1,9 +1,11 @@
 package mexica.story.guidelines;
 
-import java.util.List;
+import java.util.*;
 import mexica.MexicaParameters;
 import mexica.MexicaRepository;
+import mexica.core.Action;
 import mexica.engagement.parser.PreviousStory;
+import mexica.reflection.ActionTransitions;
 import mexica.reflection.Guideline;
 import mexica.reflection.Guidelines;
 import mexica.story.*;
@@ -14,8 +16,12 @@ import mexica.story.*;
  */
 public class NoveltyAnalyzer {
     private Story story;
+    /** Similar pairs found for every story analyzed, updated only with the actions added since the last analysis */
+    private Map<Story, NoveltyTally> tallies;
     
-    public NoveltyAnalyzer() {}
+    public NoveltyAnalyzer() {
+        tallies = new WeakHashMap<>();
+    }
     
     /**
      * If the novelty value is 100, the created story is an exact copy of a previous story
@@ -41,17 +47,34 @@ public class NoveltyAnalyzer {
     }
     
     /**
-     * Obtains the most similar previous story comparing against the current story
+     * Obtains the novelty percentage of the most similar previous story, without modifying the guidelines of the story
+     * @param story
+     * @return A value between 0 (the story is totally new) and 100 (the story is a copy of a previous story)
+     */
+    public double obtainSimilarity(Story story) {
+        this.story = story;
+        StoryNovelty similarStory = obtainSimilarStory();
+        return (similarStory != null) ? Math.min(similarStory.getNovelty(), 100) : 0;
+    }
+    
+    /**
+     * Obtains the most similar previous story comparing against the current story.<br>
+     * The similar pairs of every previous story are obtained from the index of action transitions,
+     * and only the pairs added to the story since the last analysis are looked for
      * @return 
      */
     public StoryNovelty obtainSimilarStory() {
         StoryNovelty novelty = null;
         List<PreviousStory> previousStories = MexicaRepository.getInstance().getPreviousStories();
+        int[] similarPairs = updateTally();
         double maxNovelty = 0;
         
         int i=0;
         for (PreviousStory prevStory : previousStories) {
-            StoryNovelty analysis = analyzeStory(i++, prevStory.getActions());
+            StoryNovelty analysis = new StoryNovelty();
+            analysis.setTotalPairs(prevStory.getActions().size()-1);
+            analysis.setStoryID(i);
+            analysis.setSimilarPairs(similarPairs[i++]);
             if (analysis.getNovelty() > maxNovelty) {
                 maxNovelty = analysis.getNovelty();
                 novelty = analysis;
@@ -61,6 +84,39 @@ public class NoveltyAnalyzer {
         return novelty;
     }
     
+    /**
+     * Adds the pairs of actions of the story not analyzed yet to its tally.<br>
+     * If an analyzed action was removed or replaced, the tally is calculated again
+     * @return The number of similar pairs in every previous story
+     */
+    private int[] updateTally() {
+        ActionTransitions transitions = MexicaRepository.getInstance().getActionTransitions();
+        List<ActionInstantiated> actions = story.getActions();
+        NoveltyTally tally = tallies.get(story);
+        
+        int analyzed = (tally != null) ? tally.actions.size() : 0;
+        boolean unchanged = analyzed <= actions.size();
+        for (int i=0; i<analyzed && unchanged; i++) {
+            unchanged = tally.actions.get(i).equals(actions.get(i).getAction());
+        }
+        if (tally == null || !unchanged) {
+            tally = new NoveltyTally(MexicaRepository.getInstance().getPreviousStories().size());
+            tallies.put(story, tally);
+            analyzed = 0;
+        }
+        
+        for (int i=analyzed; i<actions.size(); i++) {
+            Action action = actions.get(i).getAction();
+            if (i > 0) {
+                for (ActionTransitions.Transition transition : transitions.getTransitions(tally.actions.get(i-1), action)) {
+                    tally.similarPairs[transition.getStoryId()]++;
+                }
+            }
+            tally.actions.add(action);
+        }
+        return tally.similarPairs;
+    }
+    
     /**
      * Analyzes the number of action sequences of the current story are repeated in the given story
      * @param storyID ID of the story
@@ -88,4 +144,17 @@ public class NoveltyAnalyzer {
         
         return novelty;
     }
+    
+    /**
+     * Actions of a story already analyzed and the similar pairs found in every previous story
+     */
+    private static class NoveltyTally {
+        private List<Action> actions;
+        private int[] similarPairs;
+        
+        NoveltyTally(int previousStories) {
+            actions = new ArrayList<>();
+            similarPairs = new int[previousStories];
+        }
+    }
 }
\ No newline at end of file
@@ -83,6 +83,29 @@ public class SocialNormAnalyzer {
         return similar;
     }
     
+    /**
+     * Obtains the distance between the social norms vector of the story and the most similar previous story.<br>
+     * The social norms broken are taken from the actions of the story, so the story is not performed again
+     * @param story
+     * @return The distance to the most similar previous story, 0 if there are no previous stories
+     */
+    public int obtainDistance(Story story) {
+        StoryNorms storyNorms = new StoryNorms();
+        List<ActionInstantiated> actions = story.getActions();
+        int numberOfSocialNorms = 0;
+        for (int i=0; i<actions.size(); i++) {
+            if (actions.get(i).breaksSocialNorm())
+                numberOfSocialNorms++;
+            storyNorms.addSocialNorms(i, numberOfSocialNorms);
+        }
+        
+        int minDist = (stories.isEmpty()) ? 0 : Integer.MAX_VALUE;
+        for (StoryNorms prevStory : stories) {
+            minDist = Math.min(minDist, calculateDistance(prevStory, storyNorms));
+        }
+        return minDist;
+    }
+    
     private List<StoryNorms> readPreviousStories() {
         stories = socialNormsIO.read();
         return stories;
@@ -16,6 +16,10 @@ public class StoryNovelty {
         similarPairs++;
     }
 
+    void setSimilarPairs(int similarPairs) {
+        this.similarPairs = similarPairs;
+    }
+
     public void setTotalPairs(int totalPairs) {
         this.totalPairs = totalPairs;
     }
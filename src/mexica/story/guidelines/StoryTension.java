@@ -16,6 +16,16 @@ public class StoryTension {
         tendencies = new ArrayList<>();
     }
     
+    /**
+     * Copies the tensions and tendencies of the given story tension
+     * @param storyTension 
+     */
+    public StoryTension(StoryTension storyTension) {
+        tensions = new ArrayList<>(storyTension.tensions);
+        tendencies = new ArrayList<>(storyTension.tendencies);
+        storyID = storyTension.storyID;
+    }
+    
     public void addTension(int year, int tension) {
         tensions.add(year, tension);
         addTendency(year, tension);
@@ -25,6 +35,17 @@ public class StoryTension {
         return tensions.get(year);
     }
     
+    /**
+     * Removes the tensions from the given year onwards, and the tendencies that reach them
+     * @param year The first year to be removed (zero based index)
+     */
+    public void removeTensions(int year) {
+        if (year < tensions.size()) {
+            tensions.subList(year, tensions.size()).clear();
+            tendencies.subList(Math.max(0, year-1), tendencies.size()).clear();
+        }
+    }
+    
     private void addTendency(int year, int tension) {
         if (year > 0) {
             int prevTension = tensions.get(year-1);
@@ -37,6 +58,13 @@ public class StoryTension {
         }
     }
     
+    /**
+     * @return The number of years with a tension value
+     */
+    public int size() {
+        return tensions.size();
+    }
+    
     public List<Integer> getTensions() {
         List<Integer> tensions = new ArrayList<>();
         for (Integer i : this.tensions) {
@@ -30,6 +30,8 @@ public class TensionCurveAnalyzer {
     private TensionIO tensionIO;
     private Random random;
     private List<StoryTension> prevStories;
+    /** Index of the tension curves of the previous stories */
+    private TensionIndex tensionIndex;
     
     public TensionCurveAnalyzer() {
         tensionIO = new TensionIO();
@@ -41,7 +43,8 @@ public class TensionCurveAnalyzer {
      * @param story 
      */
     public StoryTension analyzeGuidelines(Story story) {
-        StoryTension tensionGuide = obtainSimilarStory(story.getActions(), story.getDefaultPosition());
+        StoryTension tensionVector = story.getTensionVector();
+        StoryTension tensionGuide = obtainSimilarStory(tensionVector);
         Guidelines guidelines = story.getGuidelines();
         guidelines.removeTensionGuidelines();
         //TEST
@@ -66,7 +69,6 @@ public class TensionCurveAnalyzer {
                 guidelines.addGuideline(Guideline.tendencyNeutral);
                 tensionGuideline = "NEUTRAL";
             }
-            StoryTension tensionVector = analyzeStory(-1, story.getActions(), story.getDefaultPosition());
             StoryLog.addMessage(story, "Current tension vector is: " + tensionVector);
             StoryLog.addMessage(story, "Tension Guideline is " + tensionGuideline + " from story " + tensionGuide.toString());
             
@@ -120,8 +122,16 @@ public class TensionCurveAnalyzer {
      * @return The most similar story
      */
     public StoryTension obtainSimilarStory(List<ActionInstantiated> storyActions, Position initialPosition) {
-        StoryTension story, storyTension = null;
-        story = analyzeStory(-1, storyActions, initialPosition);
+        return obtainSimilarStory(analyzeStory(-1, storyActions, initialPosition));
+    }
+    
+    /**
+     * Obtains the most similar story from all the previous stories compared against the given tension vector
+     * @param story The tensional representation of the story to be analyzed
+     * @return The most similar story
+     */
+    public StoryTension obtainSimilarStory(StoryTension story) {
+        StoryTension storyTension = null;
         //Logger.getGlobal().log(Level.INFO, "Tension analysis for current story: {0}", story);
         List<StoryTension> qualitative, quantitative;
         //Obtain the quantitative and qualitative analysis
@@ -161,35 +171,7 @@ public class TensionCurveAnalyzer {
      * @return A list with the most similar stories
      */
     public List<StoryTension> qualitativeAnalysis(StoryTension story) {
-        List<StoryTension> result = new ArrayList<>();
-        List<Integer> prevStoryEval = new ArrayList<>();
-        
-        if (prevStories == null)
-            prevStories = readPreviousStories();
-        List<TensionTendency> tendencies = story.getTendencies();
-        //Compare the tendency curve for the given story against each previous story
-        for (StoryTension st : prevStories) {
-            List<TensionTendency> prevTendencies = st.getTendencies();
-            int actions = Math.min(tendencies.size(), prevTendencies.size());
-            int eval = 0;
-            for (int i=0; i<actions; i++) {
-                eval += TensionTendency.evaluate(tendencies.get(i), prevTendencies.get(i));
-            }
-            prevStoryEval.add(eval);
-        }
-        
-        //Select the maximal evaluations
-        int maxValue = Integer.MIN_VALUE;
-        for (int i=0; i<prevStoryEval.size(); i++) {
-            if (prevStoryEval.get(i) > maxValue) {
-                maxValue = prevStoryEval.get(i);
-            }
-        }
-        for (int i=0; i<prevStoryEval.size(); i++) {
-            if (prevStoryEval.get(i) == maxValue)
-                result.add(prevStories.get(i));
-        }
-        return result;
+        return obtainTensionIndex().obtainSimilarTendencies(story);
     }
     
     /**
@@ -198,37 +180,19 @@ public class TensionCurveAnalyzer {
      * @return A list with the most similar stories
      */
     public List<StoryTension> quantitativeAnalysis(StoryTension story) {
-        List<StoryTension> result = new ArrayList<>();
-        List<Integer> prevStoryEval = new ArrayList<>();
-        
-        if (prevStories == null)
+        return obtainTensionIndex().obtainSimilarTensions(story);
+    }
+    
+    /**
+     * Obtains the index of the previous stories, reading them the first time is employed
+     * @return 
+     */
+    private TensionIndex obtainTensionIndex() {
+        if (prevStories == null) {
             prevStories = readPreviousStories();
-        List<Integer> tensions = story.getTensions();
-        
-        //Compare the tendency curve for the given story against each previous story
-        for (StoryTension st : prevStories) {
-            List<Integer> prevTensions = st.getTensions();
-            int actions = Math.min(tensions.size(), prevTensions.size());
-            int eval = 0;
-            for (int i=0; i<actions; i++) {
-                eval += Math.abs(tensions.get(i) - prevTensions.get(i));
-            }
-            prevStoryEval.add(eval);
-        }
-        
-        //Select the minimal evaluations
-        int minValue = Integer.MAX_VALUE;
-        for (int i=0; i<prevStoryEval.size(); i++) {
-            if (prevStoryEval.get(i) < minValue) {
-                minValue = prevStoryEval.get(i);
-            }
+            tensionIndex = new TensionIndex(prevStories);
         }
-        for (int i=0; i<prevStoryEval.size(); i++) {
-            if (prevStoryEval.get(i) == minValue)
-                result.add(prevStories.get(i));
-        }
-        
-        return result;
+        return tensionIndex;
     }
     
     public TensionIO getTensionIO() {
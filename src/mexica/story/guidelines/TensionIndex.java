@@ -0,0 +1,167 @@
+package mexica.story.guidelines;
+
+import java.util.*;
+
+/**
+ * Index of the tension curves of the previous stories.<br>
+ * The tendencies and the tensions of every story are stored in two prefix trees, so the stories with the same
+ * beginning share their evaluation. The most similar stories are obtained with a branch and bound search,
+ * discarding the branches that cannot reach the best evaluation found, instead of evaluating every previous story.
+ * The result is the same obtained comparing the given story against each previous story.
+ * The tensions discard most of the branches, since a difference is never recovered; the tendencies are discarded
+ * only when the rest of the curve cannot reach the best evaluation, so in the worst case every node is visited once
+ * @author Ivan Guerrero (UNAM, Mexico)
+ */
+class TensionIndex {
+    private List<StoryTension> stories;
+    private Node<TensionTendency> tendencies;
+    private Node<Integer> tensions;
+
+    TensionIndex(List<StoryTension> stories) {
+        this.stories = stories;
+        tendencies = new Node<>();
+        tensions = new Node<>();
+        for (int i=0; i<stories.size(); i++) {
+            tendencies.add(stories.get(i).getTendencies(), i);
+            tensions.add(stories.get(i).getTensions(), i);
+        }
+    }
+
+    /**
+     * Obtains the previous stories whose tendencies obtain the maximal evaluation against the tendencies of the given story.
+     * Each story is evaluated with TensionTendency.evaluate until the end of the shortest curve
+     * @param story
+     * @return A list with the most similar stories, in the order of the previous stories
+     */
+    List<StoryTension> obtainSimilarTendencies(StoryTension story) {
+        //The evaluation is maximized, so the cost of each tendency is the negative evaluation
+        Search<TensionTendency> search = new Search<TensionTendency>(story.getTendencies(), -1) {
+            @Override
+            int cost(TensionTendency tendency, TensionTendency prevTendency) {
+                return -TensionTendency.evaluate(tendency, prevTendency);
+            }
+        };
+        return search.perform(tendencies);
+    }
+
+    /**
+     * Obtains the previous stories whose tensions have the minimal difference against the tensions of the given story.
+     * The difference is the sum of the absolute differences until the end of the shortest curve
+     * @param story
+     * @return A list with the most similar stories, in the order of the previous stories
+     */
+    List<StoryTension> obtainSimilarTensions(StoryTension story) {
+        Search<Integer> search = new Search<Integer>(story.getTensions(), 0) {
+            @Override
+            int cost(Integer tension, Integer prevTension) {
+                return Math.abs(tension - prevTension);
+            }
+        };
+        return search.perform(tensions);
+    }
+
+    /**
+     * Node of a prefix tree, contains the previous stories whose curve starts with the values of the path to the node
+     */
+    private static class Node<K> {
+        private List<K> values = new ArrayList<>();
+        private List<Node<K>> children = new ArrayList<>();
+        /** Stories whose curve continues or ends in this node */
+        private List<Integer> stories = new ArrayList<>();
+        /** Stories whose curve ends in this node */
+        private List<Integer> ending = new ArrayList<>();
+        /** Length of the longest curve after this node */
+        private int height;
+
+        void add(List<K> values, int story) {
+            Node<K> node = this;
+            node.stories.add(story);
+            for (int i=0; i<values.size(); i++) {
+                node.height = Math.max(node.height, values.size() - i);
+                int index = node.values.indexOf(values.get(i));
+                if (index < 0) {
+                    index = node.values.size();
+                    node.values.add(values.get(i));
+                    node.children.add(new Node<K>());
+                }
+                node = node.children.get(index);
+                node.stories.add(story);
+            }
+            node.ending.add(story);
+        }
+    }
+
+    /**
+     * Search of the previous stories with the minimal cost against the values of a story
+     */
+    private abstract class Search<K> {
+        private List<K> values;
+        /** Minimal cost of comparing a single value, to bound the cost of the rest of a curve */
+        private int minCost;
+        private int bestCost;
+        private List<Integer> result;
+
+        Search(List<K> values, int minCost) {
+            this.values = values;
+            this.minCost = minCost;
+            bestCost = Integer.MAX_VALUE;
+            result = new ArrayList<>();
+        }
+
+        /**
+         * @return The cost of comparing a value of the story against a value of a previous story
+         */
+        abstract int cost(K value, K prevValue);
+
+        List<StoryTension> perform(Node<K> root) {
+            visit(root, 0, 0);
+            Collections.sort(result);
+            List<StoryTension> list = new ArrayList<>();
+            for (Integer i : result) {
+                list.add(stories.get(i));
+            }
+            return list;
+        }
+
+        private void visit(Node<K> node, int depth, int cost) {
+            //The curve of the story ends, so the following values are not compared
+            if (depth == values.size()) {
+                addStories(node.stories, cost);
+                return;
+            }
+            addStories(node.ending, cost);
+
+            //The cheapest branches are visited first to discard more branches
+            int size = node.children.size();
+            int[] costs = new int[size];
+            int[] order = new int[size];
+            for (int i=0; i<size; i++) {
+                int c = cost + cost(values.get(depth), node.values.get(i));
+                //Insertion sort, since a node has a few children
+                int j = i;
+                for (; j>0 && costs[order[j-1]] > c; j--) {
+                    order[j] = order[j-1];
+                }
+                order[j] = i;
+                costs[i] = c;
+            }
+            int remaining = values.size() - depth - 1;
+            for (int i : order) {
+                Node<K> child = node.children.get(i);
+                //Only the values of the longest curve after the node can be compared
+                if (costs[i] + minCost * Math.min(remaining, child.height) <= bestCost)
+                    visit(child, depth+1, costs[i]);
+            }
+        }
+
+        private void addStories(List<Integer> stories, int cost) {
+            if (stories.isEmpty() || cost > bestCost)
+                return;
+            if (cost < bestCost) {
+                bestCost = cost;
+                result.clear();
+            }
+            result.addAll(stories);
+        }
+    }
+}
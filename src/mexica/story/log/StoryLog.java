@@ -7,7 +7,8 @@ import mexica.story.*;
 import mexica.story.guidelines.TensionCurveAnalyzer;
 
 /**
- * Class to store the story log
+ * Class to store the story log.<br>
+ * The logs are shared by the stories generated in parallel, so the access to them is synchronized
  * @author Ivan Guerrero
  */
 public class StoryLog {
@@ -22,7 +23,7 @@ public class StoryLog {
      * @param story Story
      * @param message Message to be added to the story log
      */
-    public static void addMessage(Story story, String message) {
+    public static synchronized void addMessage(Story story, String message) {
         if (storyLog.containsKey(story)) {
             storyLog.get(story).add(message);
         }
@@ -38,10 +39,28 @@ public class StoryLog {
      * @param story Story
      * @return A list of log messages
      */
-    public static List<String> getLog(Story story) {
+    public static synchronized List<String> getLog(Story story) {
         return storyLog.get(story);
     }
     
+    /**
+     * Copies the log messages of a story into another one, as when the second story is obtained from the first
+     * @param story Story with the log messages
+     * @param copy Story where the messages are added
+     */
+    public static synchronized void copyLog(Story story, Story copy) {
+        if (storyLog.containsKey(story))
+            storyLog.put(copy, new ArrayList<>(storyLog.get(story)));
+    }
+    
+    /**
+     * Removes the log messages linked to a story that will not be employed anymore
+     * @param story Story
+     */
+    public static synchronized void removeLog(Story story) {
+        storyLog.remove(story);
+    }
+    
     public static void saveToFile(Story story, File file) throws IOException {
         FileWriter writer = new FileWriter(file);
         List<String> log = StoryLog.getLog(story);
@@ -2,7 +2,6 @@ package mexica.tools;
 
 import java.util.*;
 import mexica.CharacterName;
-import mexica.MexicaParameters;
 import mexica.core.Position;
 import mexica.story.*;
 import mexica.tools.avatar.AvatarCaretaker;
@@ -19,6 +18,10 @@ import mexica.tools.avatar.AvatarMemento;
 public class AvatarFactory extends AvatarCaretaker {    
     private Position defaultPosition;
     private List<Avatar> characters;
+    /** Position of each character inside the characters list */
+    private Map<CharacterName, Integer> indexes;
+    /** Positions of the characters inside the characters list located in each position */
+    private Map<Position, BitSet> positions;
     private static final List<CharacterName> availableCharacterNames;
     private static final List<CharacterName> nonElegibleCharacterNames;
     private Story story;
@@ -37,12 +40,31 @@ public class AvatarFactory extends AvatarCaretaker {
         this.story = story;
         characters = new ArrayList<>();
         defaultPosition = Position.NotDefined;
+        indexCharacters();
+    }
+    
+    /**
+     * Creates a factory for a story obtained with Story.fork, with a copy of the characters of the given factory.<br>
+     * The states saved previously are shared with the given factory
+     * @param story The new story
+     * @param factory The factory of the original story
+     */
+    public AvatarFactory(Story story, AvatarFactory factory) {
+        super(factory);
+        this.story = story;
+        characters = new ArrayList<>();
+        for (Avatar avatar : factory.characters) {
+            characters.add(avatar.fork(story));
+        }
+        defaultPosition = factory.defaultPosition;
+        indexCharacters();
     }
     
     @Override
     public void restart() {
         super.restart();
         characters = new ArrayList<>();
+        indexCharacters();
     }
     
     /**
@@ -52,12 +74,15 @@ public class AvatarFactory extends AvatarCaretaker {
      * @return The avatar for the given character's name (the first time is created is inactive)
      */
     public Avatar getAvatar(CharacterName name, boolean instantiate) {
+        Integer index = indexes.get(name);
+        if (index != null)
+            return characters.get(index);
+        
         Avatar avatar = new Avatar(name, story);
-        int index = characters.indexOf(avatar);
-        if (index >= 0)
-            avatar = characters.get(index);
-        else if (instantiate)
+        if (instantiate) {
             characters.add(avatar);
+            addToIndex(avatar, characters.size()-1);
+        }
 
         return avatar;
     }
@@ -100,7 +125,7 @@ public class AvatarFactory extends AvatarCaretaker {
                     position = avatar.getCurrentPosition();
                 else {
                     if (!position.equals(avatar.getCurrentPosition()) && !multiplePositions)
-                        if (MexicaParameters.ENABLE_STORY_EXCEPTIONS)
+                        if (story.isStoryExceptionsEnabled())
                             throw new InvalidCharacterException("Characters are in different locations: " + 
                                         Arrays.toString(names) + "\t" + position + " " + avatar.getCurrentPosition());
                 }
@@ -143,9 +168,8 @@ public class AvatarFactory extends AvatarCaretaker {
     public List<CharacterName> getAvailableCharacterNames() {
         List<CharacterName> availables = new ArrayList<>();
         for (CharacterName name : availableCharacterNames) {
-            Avatar avatar = new Avatar(name, story);
-            if (characters.contains(avatar)) {
-                avatar = getAvatar(name);
+            if (indexes.containsKey(name)) {
+                Avatar avatar = getAvatar(name);
                 if (avatar.isActive() && avatar.wasAlive(story.getCurrentYear()))
                     availables.add(name);
             } else
@@ -170,14 +194,52 @@ public class AvatarFactory extends AvatarCaretaker {
      */
     public List<Avatar> getAvatarsInPosition(Position position) {
         List<Avatar> list = new ArrayList<>();
-        for (Avatar avatar : characters) {
-            if (avatar.getCurrentPosition().equals(position)) 
-                list.add(avatar);
+        BitSet located = (position != null) ? positions.get(position) : null;
+        if (located != null) {
+            for (int i = located.nextSetBit(0); i >= 0; i = located.nextSetBit(i+1)) {
+                list.add(characters.get(i));
+            }
         }
         
         return list;
     }
     
+    /**
+     * Updates the index of positions when a character changes its position.<br>
+     * Called by the character, copies of the characters not included in the factory are ignored
+     * @param avatar The character
+     * @param previousPosition The position of the character before the change
+     */
+    public void updatePosition(Avatar avatar, Position previousPosition) {
+        Integer index = indexes.get(avatar.getName());
+        if (index != null && characters.get(index) == avatar) {
+            if (previousPosition != null)
+                positions.get(previousPosition).clear(index);
+            if (avatar.getCurrentPosition() != null)
+                positions.get(avatar.getCurrentPosition()).set(index);
+        }
+    }
+    
+    /**
+     * Creates the indexes of names and positions of the characters list
+     */
+    private void indexCharacters() {
+        indexes = new EnumMap<>(CharacterName.class);
+        positions = new EnumMap<>(Position.class);
+        for (Position position : Position.values()) {
+            positions.put(position, new BitSet());
+        }
+        for (int i=0; i<characters.size(); i++) {
+            addToIndex(characters.get(i), i);
+        }
+    }
+    
+    private void addToIndex(Avatar avatar, int index) {
+        indexes.put(avatar.getName(), index);
+        if (avatar.getCurrentPosition() != null)
+            positions.get(avatar.getCurrentPosition()).set(index);
+    }
+    
     public void setDefaultPosition(Position position) {
         this.defaultPosition = position;
     }
@@ -187,24 +249,83 @@ public class AvatarFactory extends AvatarCaretaker {
     }
     
     /**
-     * Calls every character context to look for special tensions
+     * Calls every character context to look for special tensions.<br>
+     * The contexts are analyzed a second time only when the first analysis modified a character, a context
+     * or the social data of the last action; otherwise every analyzer would obtain the same result again
      */
     public void validateAdditionalTensions() {
-        //TODO: Improve performance to execute only once. 
-        //This is because killed character's context is not always the first to be updated
+        //The contexts are analyzed twice because killed character's context is not always the first to be updated
         //FIX: Call first the context of a dead character
-        for (Avatar avatar : getActiveCharacters()) {
-            avatar.getContext().notifyListeners(IStoryContextListener.ListType.Tensions);
-            avatar.getContext().notifyListeners(IStoryContextListener.ListType.Conditions);
-            avatar.getContext().notifyListeners(IStoryContextListener.ListType.StoryUpdated);
-        }
+        int modifications = story.getModifications();
+        SocialData socialData = obtainLastSocialData();
+        analyzeContexts();
         
+        if (modifications != story.getModifications() || !Objects.equals(socialData, obtainLastSocialData()))
+            analyzeContexts();
+    }
+    
+    private void analyzeContexts() {
         for (Avatar avatar : getActiveCharacters()) {
             avatar.getContext().notifyListeners(IStoryContextListener.ListType.Tensions);
             avatar.getContext().notifyListeners(IStoryContextListener.ListType.Conditions);
             avatar.getContext().notifyListeners(IStoryContextListener.ListType.StoryUpdated);
         }
     }
+    
+    /**
+     * @return A copy of the social data of the last action analyzed, or null if it doesn't have social data
+     */
+    private SocialData obtainLastSocialData() {
+        List<ActionInstantiated> actions = story.getActions();
+        int index = story.getCurrentYear() - 2;
+        if (index < 0 || index >= actions.size() || actions.get(index).getSocialData() == null)
+            return null;
+        return new SocialData(actions.get(index).getSocialData());
+    }
+
+    /**
+     * @return The number of characters instantiated in the story, active or not
+     */
+    public int getCharacterCount() {
+        return characters.size();
+    }
+    
+    /**
+     * Removes the characters instantiated after the given number of characters and the saved states.<br>
+     * Employed to undo the addition of an action
+     * @param count 
+     */
+    public void removeCharacters(int count) {
+        super.restart();
+        characters.subList(count, characters.size()).clear();
+        indexCharacters();
+    }
+    
+    /**
+     * Obtains a copy of every character (active or not) to be stored in a story checkpoint
+     * @return 
+     */
+    public List<Avatar> copyCharacters() {
+        return copyCharacters(characters);
+    }
+    
+    /**
+     * Restablishes the characters from a copy obtained from copyCharacters.<br>
+     * The given copy is not modified, so it can be employed again
+     * @param copy 
+     */
+    public void restoreCharacters(List<Avatar> copy) {
+        characters = copyCharacters(copy);
+        indexCharacters();
+    }
+    
+    private static List<Avatar> copyCharacters(List<Avatar> avatars) {
+        List<Avatar> copy = new ArrayList<>();
+        for (Avatar avatar : avatars) {
+            copy.add(avatar.copy());
+        }
+        return copy;
+    }
 
     @Override
     public void saveToMemento() {
@@ -215,6 +336,6 @@ public class AvatarFactory extends AvatarCaretaker {
     public void restoreFromMemento() {
         AvatarMemento lastMemento = getLastMemento();
         if (lastMemento != null)
-            characters = lastMemento.getState();
+            restoreCharacters(lastMemento.getState());
     }
 }
\ No newline at end of file
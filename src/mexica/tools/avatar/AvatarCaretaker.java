@@ -13,6 +13,14 @@ public abstract class AvatarCaretaker {
         savedStates = new ArrayList<>();
     }
     
+    /**
+     * Creates a caretaker sharing the states saved by the given one
+     * @param caretaker 
+     */
+    public AvatarCaretaker(AvatarCaretaker caretaker) {
+        savedStates = new ArrayList<>(caretaker.savedStates);
+    }
+    
     public void restart() {
         savedStates = new ArrayList<>();
     }
@@ -10,18 +10,21 @@ public class AvatarMemento {
     private List<Avatar> savedState;
 
     /**
-     * Clones every element in the list and stores a copy of it
+     * Stores a copy of every element in the list.<br>
+     * The copies share the contexts of the avatars until one of them is modified, 
+     * so saving the state doesn't clone the known facts and tensions
      * @param savedState 
      */
     public AvatarMemento(List<Avatar> savedState) {
         this.savedState = new ArrayList<>();
         for (Avatar a : savedState) {
-            this.savedState.add((Avatar)a.clone());
+            this.savedState.add(a.copy());
         }
     }
     
     /**
-     * Obtains the saved avatars
+     * Obtains the saved avatars.<br>
+     * The avatars must be copied before being modified, so the memento can be employed again
      * @return 
      */
     public List<Avatar> getState() {
@@ -8,6 +8,7 @@ import mexica.reflection.Guideline;
 import mexica.reflection.Guidelines;
 import mexica.story.ActionInstantiated;
 import mexica.story.ConditionInstantiated;
+import mexica.story.Story;
 
 /**
  * Decorator for the Guidelines class to implement slant guidelines
@@ -22,6 +23,18 @@ public class SlantGuidelines extends Guidelines {
         slantGuidelines = new ArrayList<>();
     }
     
+    /**
+     * Creates a copy of the given guidelines for another story, as when the story is forked.<br>
+     * The decorated guidelines and the prohibitions suggested by Slant are copied
+     * @param story The story employing the copy
+     * @param slantGuidelines The guidelines to be copied
+     */
+    public SlantGuidelines(Story story, SlantGuidelines slantGuidelines) {
+        super(story, slantGuidelines);
+        guidelines = new Guidelines(story, slantGuidelines.guidelines);
+        this.slantGuidelines = new ArrayList<>(slantGuidelines.slantGuidelines);
+    }
+    
     public void addSlantGuideline(CharacterName performer, TensionType tension, boolean prohibit) {
         slantGuidelines.add(new SlantGuideline(performer, tension, prohibit));
     }
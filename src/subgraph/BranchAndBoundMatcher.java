@@ -0,0 +1,198 @@
+package subgraph;
+
+import java.util.*;
+
+/**
+ * Depth-first branch-and-bound search for the edge mapping between two graphs.<br>
+ * The edges of the smallest graph are analyzed in order. An edge is matched when at least one of the
+ * partial mappings built so far can be extended with it; otherwise it's left unmatched. The first mapping
+ * (in edge order) that matches all the selected edges is returned.<br>
+ * Only the current mapping is kept in memory, and the search stops as soon as the number of matchable edges
+ * cannot reach the requested similarity.
+ * @author Ivan Guerrero
+ */
+class BranchAndBoundMatcher {
+    private LabeledGraph graph1, graph2;
+    /** For each edge in the first graph, the indexes of the edges in the second graph with a compatible label */
+    private int[][] candidates;
+    private int totalEdges;
+    private double minimumSimilarity;
+
+    /** Current mapping of nodes (-1 for unmapped nodes) */
+    private int[] mapping;
+    /** Number of times each node of the second graph is employed as mapping value */
+    private int[] mappedValues;
+    /** Edges of the second graph already matched */
+    private BitSet usedEdges;
+    /** Edges of the first graph selected as matched, in order */
+    private List<Integer> matchedSteps;
+    /** Edge of the second graph assigned to each selected step */
+    private int[] assignment;
+    /** Nodes added to the mapping by each step, employed to undo the step */
+    private boolean[] addedSource, addedTarget;
+
+    /**
+     * @param graph1 The graph with the smallest number of edges
+     * @param graph2 The graph with the largest number of edges
+     * @param candidates For each edge in graph1, the ordered indexes of the edges in graph2 with a compatible label
+     * @param minimumSimilarity Minimum similarity value required for the solution
+     */
+    BranchAndBoundMatcher(LabeledGraph graph1, LabeledGraph graph2, int[][] candidates, double minimumSimilarity) {
+        this.graph1 = graph1;
+        this.graph2 = graph2;
+        this.candidates = candidates;
+        this.totalEdges = graph1.getEdgeCount() + graph2.getEdgeCount();
+        this.minimumSimilarity = minimumSimilarity;
+        mapping = new int[graph1.getNodeCount()];
+        Arrays.fill(mapping, -1);
+        mappedValues = new int[graph2.getNodeCount()];
+        usedEdges = new BitSet(graph2.getEdgeCount());
+        matchedSteps = new ArrayList<>();
+        assignment = new int[graph1.getEdgeCount()];
+        addedSource = new boolean[graph1.getEdgeCount()];
+        addedTarget = new boolean[graph1.getEdgeCount()];
+    }
+
+    /**
+     * Performs the search
+     * @return The pairs (edge1 index, edge2 index) of the mapping found in the order they were matched,
+     * or null if the minimum similarity cannot be reached
+     */
+    int[][] match() {
+        int size1 = graph1.getEdgeCount();
+        int size2 = graph2.getEdgeCount();
+
+        for (int i=0; i<size1; i++) {
+            //Bounds the number of edges that can still be matched
+            int upperBound = Math.min(matchedSteps.size() + size1 - i, size2);
+            if (Solution.getSimilarity(upperBound, totalEdges) < minimumSimilarity)
+                return null;
+            if (matchedSteps.size() == size2)
+                break;
+            if (candidates[i].length == 0)
+                continue;
+
+            //Try to extend the current mapping
+            if (extend(i, 0)) {
+                matchedSteps.add(i);
+                continue;
+            }
+
+            //Look for the first mapping that matches all the selected edges and the current one
+            int[] previous = new int[matchedSteps.size()];
+            for (int k=0; k<previous.length; k++) {
+                previous[k] = assignment[matchedSteps.get(k)];
+            }
+            List<Integer> steps = new ArrayList<>(matchedSteps);
+            steps.add(i);
+            undoAll();
+            if (search(steps, 0))
+                matchedSteps = steps;
+            else
+                restore(previous);
+        }
+
+        if (Solution.getSimilarity(matchedSteps.size(), totalEdges) < minimumSimilarity)
+            return null;
+
+        int[][] pairs = new int[matchedSteps.size()][];
+        for (int k=0; k<pairs.length; k++) {
+            int step = matchedSteps.get(k);
+            pairs[k] = new int[] {step, assignment[step]};
+        }
+        return pairs;
+    }
+
+    /**
+     * Finds the first assignment for the given steps in edge order
+     * @param steps Indexes of the edges in the first graph to be matched
+     * @param depth Current position in the steps list
+     * @return True if an assignment was found
+     */
+    private boolean search(List<Integer> steps, int depth) {
+        if (depth == steps.size())
+            return true;
+        int step = steps.get(depth);
+        int from = 0;
+        while (extend(step, from)) {
+            if (search(steps, depth+1))
+                return true;
+            from = undo(step) + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Maps the given edge of the first graph with the first available candidate starting at the given position
+     * @param step Index of the edge in the first graph
+     * @param from First candidate position to analyze
+     * @return True if the edge was mapped
+     */
+    private boolean extend(int step, int from) {
+        int source = graph1.getSource(step);
+        int target = graph1.getTarget(step);
+        for (int pos=from; pos<candidates[step].length; pos++) {
+            int j = candidates[step][pos];
+            if (usedEdges.get(j))
+                continue;
+            int mapSource = mapping[source];
+            int mapTarget = mapping[target];
+            int sourceJ = graph2.getSource(j);
+            int targetJ = graph2.getTarget(j);
+            if (((mapSource == -1 && mappedValues[sourceJ] == 0) || mapSource == sourceJ) &&
+                ((mapTarget == -1 && mappedValues[targetJ] == 0) || mapTarget == targetJ)) {
+                addedSource[step] = (mapSource == -1);
+                if (addedSource[step])
+                    addMapping(source, sourceJ);
+                addedTarget[step] = (mapping[target] == -1);
+                if (addedTarget[step])
+                    addMapping(target, targetJ);
+                usedEdges.set(j);
+                assignment[step] = pos;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the mapping of the given edge
+     * @param step Index of the edge in the first graph
+     * @return The candidate position that was assigned to the edge
+     */
+    private int undo(int step) {
+        int pos = assignment[step];
+        usedEdges.clear(candidates[step][pos]);
+        if (addedTarget[step])
+            removeMapping(graph1.getTarget(step));
+        if (addedSource[step])
+            removeMapping(graph1.getSource(step));
+        return pos;
+    }
+
+    private void undoAll() {
+        for (int k=matchedSteps.size()-1; k>=0; k--) {
+            undo(matchedSteps.get(k));
+        }
+    }
+
+    /**
+     * Applies again the given candidate positions to the selected steps
+     * @param positions
+     */
+    private void restore(int[] positions) {
+        for (int k=0; k<positions.length; k++) {
+            extend(matchedSteps.get(k), positions[k]);
+        }
+    }
+
+    private void addMapping(int source, int target) {
+        mapping[source] = target;
+        mappedValues[target]++;
+    }
+
+    private void removeMapping(int source) {
+        mappedValues[mapping[source]]--;
+        mapping[source] = -1;
+    }
+}
@@ -0,0 +1,176 @@
+package subgraph;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import mexica.core.EmotionType;
+
+/**
+ * Class to compile the edge labels into integer codes.<br>
+ * Emotion labels in the form "type (intensity)" are packed as kind, emotion type, intensity sign and magnitude.
+ * Any other label (tensions, conditions with status) receives an ID that only matches labels equal to it ignoring case.<br>
+ * The compatibility between emotion codes is precomputed in a table.
+ * @author Ivan Guerrero
+ */
+public final class LabelCode {
+    private static final Pattern emotion = Pattern.compile("\\s*(\\d)\\s*\\((-?\\d)\\)\\s*");
+
+    public static final int KIND_LABEL = 0;
+    public static final int KIND_EMOTION = 1;
+    private static final int KIND_SHIFT = 24;
+    private static final int TYPE_SHIFT = 8;
+    private static final int SIGN_SHIFT = 4;
+    private static final int SIGN_ZERO = 0, SIGN_POSITIVE = 1, SIGN_NEGATIVE = 2;
+    /** Number of emotion types and intensities that can be represented inside a label */
+    private static final int EMOTION_TYPES = 10, INTENSITIES = 19, MAX_INTENSITY = 9;
+
+    /** Codes already compiled */
+    private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    /** IDs assigned to the labels that are not emotions */
+    private static final Map<String, Integer> labelIDs = new ConcurrentHashMap<>();
+    private static volatile CompatibilityTable table;
+
+    private LabelCode() {}
+
+    /**
+     * Obtains the code for the given label
+     * @param label
+     * @return
+     */
+    public static int compile(String label) {
+        Integer code = codes.get(label);
+        if (code == null) {
+            code = createCode(label);
+            codes.put(label, code);
+        }
+        return code;
+    }
+
+    private static int createCode(String label) {
+        Matcher m = emotion.matcher(label);
+        if (m.matches()) {
+            int type = Integer.parseInt(m.group(1));
+            int intensity = Integer.parseInt(m.group(2));
+            int sign = (intensity > 0) ? SIGN_POSITIVE : (intensity < 0) ? SIGN_NEGATIVE : SIGN_ZERO;
+            return (KIND_EMOTION << KIND_SHIFT) | (type << TYPE_SHIFT) | (sign << SIGN_SHIFT) | Math.abs(intensity);
+        }
+        String key = label.toLowerCase(Locale.ROOT);
+        synchronized (labelIDs) {
+            Integer id = labelIDs.get(key);
+            if (id == null) {
+                id = labelIDs.size();
+                labelIDs.put(key, id);
+            }
+            return (KIND_LABEL << KIND_SHIFT) | id;
+        }
+    }
+
+    public static int getKind(int code) {
+        return code >>> KIND_SHIFT;
+    }
+
+    /**
+     * Only valid for emotion codes
+     * @param code
+     * @return The emotion type value
+     */
+    public static int getEmotionValue(int code) {
+        return (code >>> TYPE_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Only valid for emotion codes
+     * @param code
+     * @return The signed intensity
+     */
+    public static int getIntensity(int code) {
+        int magnitude = code & 0xF;
+        return (((code >>> SIGN_SHIFT) & 0xF) == SIGN_NEGATIVE) ? -magnitude : magnitude;
+    }
+
+    /**
+     * Determines if the element with the first label can replace the element with the second label.<br>
+     * Emotions are compatible when they have the same type (or one of them is any emotion) and intensities
+     * with the same sign, where the intensity of the first one is equal or higher (or lower when inverted) than the second one.
+     * Any other label must be equal.
+     * @param code1
+     * @param code2
+     * @param isInverted True when the graphs were swapped before the comparison
+     * @return
+     */
+    public static boolean areCompatible(int code1, int code2, boolean isInverted) {
+        if (getKind(code1) == KIND_EMOTION && getKind(code2) == KIND_EMOTION)
+            return obtainTable().areCompatible(index(code1), index(code2), isInverted);
+        return code1 == code2;
+    }
+
+    private static int index(int code) {
+        return getEmotionValue(code) * INTENSITIES + getIntensity(code) + MAX_INTENSITY;
+    }
+
+    /**
+     * The table depends on the value of the "any emotion", so it's rebuilt when that value changes
+     * @return
+     */
+    private static CompatibilityTable obtainTable() {
+        EmotionType any = EmotionType.getAnyEmotion();
+        int anyValue = (any != null) ? EmotionType.getEmotionValue(any) : -1;
+        CompatibilityTable current = table;
+        if (current == null || current.anyValue != anyValue) {
+            current = new CompatibilityTable(anyValue);
+            table = current;
+        }
+        return current;
+    }
+
+    /**
+     * Precomputed compatibility between every pair of emotion codes
+     */
+    private static class CompatibilityTable {
+        private final int anyValue;
+        private final boolean[][] regular, inverted;
+
+        CompatibilityTable(int anyValue) {
+            this.anyValue = anyValue;
+            int size = EMOTION_TYPES * INTENSITIES;
+            regular = new boolean[size][size];
+            inverted = new boolean[size][size];
+            for (int i=0; i<size; i++) {
+                for (int j=0; j<size; j++) {
+                    regular[i][j] = compare(i, j, false);
+                    inverted[i][j] = compare(i, j, true);
+                }
+            }
+        }
+
+        private boolean compare(int index1, int index2, boolean isInverted) {
+            int type1 = index1 / INTENSITIES;
+            int type2 = index2 / INTENSITIES;
+            int intensity1 = index1 % INTENSITIES - MAX_INTENSITY;
+            int intensity2 = index2 % INTENSITIES - MAX_INTENSITY;
+            if (type1 != type2 && type1 != anyValue && type2 != anyValue)
+                return false;
+            //If both have the same sign, the second label can be equal or higher
+            if (intensity1 > 0 && intensity2 > 0) {
+                if (isInverted)
+                    return (Math.abs(intensity1) <= Math.abs(intensity2));
+                else
+                    return (Math.abs(intensity1) >= Math.abs(intensity2));
+            }
+            else if (intensity1 < 0 && intensity2 < 0) {
+                if (isInverted)
+                    return (Math.abs(intensity1) >= Math.abs(intensity2));
+                else
+                    return (Math.abs(intensity1) <= Math.abs(intensity2));
+            }
+            else
+                return false;
+        }
+
+        boolean areCompatible(int index1, int index2, boolean isInverted) {
+            return (isInverted) ? inverted[index1][index2] : regular[index1][index2];
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package subgraph;
+
+import java.util.*;
+
+/**
+ * Immutable directed multigraph with labeled edges.<br>
+ * Nodes are identified by consecutive integer IDs and edges are stored in arrays,
+ * in the order they were added. Edges with the same label code are grouped in buckets.
+ * @author Ivan Guerrero
+ */
+public class LabeledGraph {
+    private INode[] nodes;
+    private int[] sources, targets;
+    private String[] labels;
+    private int[] labelCodes;
+    /** Bucket of each edge */
+    private int[] edgeBuckets;
+    /** Label code and ordered edges of each bucket */
+    private int[] bucketCodes;
+    private int[][] bucketEdges;
+    /** Key of the graph's structure, created when requested */
+    private StructureKey structureKey;
+
+    private LabeledGraph(INode[] nodes, int[] sources, int[] targets, String[] labels, int[] labelCodes) {
+        this.nodes = nodes;
+        this.sources = sources;
+        this.targets = targets;
+        this.labels = labels;
+        this.labelCodes = labelCodes;
+        createBuckets();
+    }
+
+    private void createBuckets() {
+        Map<Integer, List<Integer>> buckets = new LinkedHashMap<>();
+        edgeBuckets = new int[labelCodes.length];
+        for (int i=0; i<labelCodes.length; i++) {
+            List<Integer> edges = buckets.get(labelCodes[i]);
+            if (edges == null) {
+                edges = new ArrayList<>();
+                buckets.put(labelCodes[i], edges);
+            }
+            edges.add(i);
+        }
+        bucketCodes = new int[buckets.size()];
+        bucketEdges = new int[buckets.size()][];
+        int bucket = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : buckets.entrySet()) {
+            bucketCodes[bucket] = entry.getKey();
+            bucketEdges[bucket] = new int[entry.getValue().size()];
+            for (int k=0; k<bucketEdges[bucket].length; k++) {
+                int edge = entry.getValue().get(k);
+                bucketEdges[bucket][k] = edge;
+                edgeBuckets[edge] = bucket;
+            }
+            bucket++;
+        }
+    }
+
+    /**
+     * Creates a graph with the given edges
+     * @param edges
+     * @return 
+     */
+    public static LabeledGraph fromEdges(Collection<? extends IEdge> edges) {
+        Builder builder = new Builder(edges.size());
+        for (IEdge e : edges) {
+            builder.addEdge(e.getSource(), e.getTarget(), e.getLabel());
+        }
+        return builder.build();
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    public int getEdgeCount() {
+        return labels.length;
+    }
+
+    public INode getNode(int node) {
+        return nodes[node];
+    }
+
+    /**
+     * @param edge
+     * @return The ID of the source node of the given edge
+     */
+    public int getSource(int edge) {
+        return sources[edge];
+    }
+
+    /**
+     * @param edge
+     * @return The ID of the target node of the given edge
+     */
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    public String getLabel(int edge) {
+        return labels[edge];
+    }
+
+    /**
+     * @param edge
+     * @return The compiled code of the edge label
+     * @see LabelCode
+     */
+    public int getLabelCode(int edge) {
+        return labelCodes[edge];
+    }
+
+    public int getBucketCount() {
+        return bucketCodes.length;
+    }
+
+    /**
+     * @param edge
+     * @return The bucket containing the given edge
+     */
+    public int getBucket(int edge) {
+        return edgeBuckets[edge];
+    }
+
+    /**
+     * @param bucket
+     * @return The label code shared by the edges in the bucket
+     */
+    public int getBucketCode(int bucket) {
+        return bucketCodes[bucket];
+    }
+
+    /**
+     * @param bucket
+     * @return The edges in the bucket in ascending order
+     */
+    public int[] getBucketEdges(int bucket) {
+        return bucketEdges[bucket];
+    }
+
+    /**
+     * Determines if both graphs contain the same nodes and edges in the same order
+     * @param graph
+     * @return 
+     */
+    public boolean hasSameEdges(LabeledGraph graph) {
+        return Arrays.equals(nodes, graph.nodes) && Arrays.equals(sources, graph.sources) &&
+               Arrays.equals(targets, graph.targets) && Arrays.equals(labels, graph.labels);
+    }
+
+    /**
+     * Obtains a key identifying the structure of the graph: the number of nodes and the source, target and label code 
+     * of each edge in order.<br>
+     * Graphs with the same key only differ in the identity of their nodes (e.g. the characters of a context), 
+     * so the comparisons against them produce the same edge pairs.
+     * The key depends on the order of the edges, since the edge pairs found by a comparison depend on it too.
+     * @return 
+     */
+    public Object getStructureKey() {
+        if (structureKey == null) {
+            int[] values = new int[1 + labelCodes.length * 3];
+            values[0] = nodes.length;
+            for (int i=0; i<labelCodes.length; i++) {
+                values[1 + i*3] = sources[i];
+                values[2 + i*3] = targets[i];
+                values[3 + i*3] = labelCodes[i];
+            }
+            structureKey = new StructureKey(values);
+        }
+        return structureKey;
+    }
+
+    /**
+     * Obtains a new edge object representing the given edge
+     * @param edge
+     * @return
+     */
+    public IEdge getEdge(int edge) {
+        return new Edge(nodes[sources[edge]], nodes[targets[edge]], labels[edge]);
+    }
+
+    /**
+     * Describes the edges of the graph that are not included in the given set
+     * @param excludedEdges
+     * @return
+     */
+    public String toString(BitSet excludedEdges) {
+        StringBuilder text = new StringBuilder("[");
+        for (int i=0; i<labels.length; i++) {
+            if (excludedEdges != null && excludedEdges.get(i))
+                continue;
+            if (text.length() > 1)
+                text.append(", ");
+            text.append(getEdge(i));
+        }
+        return text.append("]").toString();
+    }
+
+    @Override
+    public String toString() {
+        return toString(null);
+    }
+
+    /**
+     * Immutable key of a graph's structure
+     */
+    private static class StructureKey {
+        private final int[] values;
+        private final int hash;
+
+        StructureKey(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StructureKey && Arrays.equals(values, ((StructureKey)obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Class to create a graph adding one edge at a time.<br>
+     * Equal nodes are stored only once.
+     */
+    public static class Builder {
+        private List<INode> nodes;
+        private Map<INode, Integer> nodeIDs;
+        private int[] sources, targets;
+        private String[] labels;
+        private int[] labelCodes;
+        private int edgeCount;
+
+        public Builder() {
+            this(8);
+        }
+
+        /**
+         * @param expectedEdges Initial capacity for the edges
+         */
+        public Builder(int expectedEdges) {
+            nodes = new ArrayList<>();
+            nodeIDs = new HashMap<>();
+            expectedEdges = Math.max(expectedEdges, 1);
+            sources = new int[expectedEdges];
+            targets = new int[expectedEdges];
+            labels = new String[expectedEdges];
+            labelCodes = new int[expectedEdges];
+        }
+
+        public Builder addEdge(INode source, INode target, String label) {
+            return addEdge(source, target, label, LabelCode.compile(label));
+        }
+
+        /**
+         * Adds an edge whose label was already compiled
+         * @param source
+         * @param target
+         * @param label
+         * @param labelCode
+         * @return 
+         */
+        public Builder addEdge(INode source, INode target, String label, int labelCode) {
+            if (edgeCount == labels.length) {
+                sources = Arrays.copyOf(sources, edgeCount * 2);
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+                labels = Arrays.copyOf(labels, edgeCount * 2);
+                labelCodes = Arrays.copyOf(labelCodes, edgeCount * 2);
+            }
+            sources[edgeCount] = obtainNodeID(source);
+            targets[edgeCount] = obtainNodeID(target);
+            labels[edgeCount] = label;
+            labelCodes[edgeCount] = labelCode;
+            edgeCount++;
+            return this;
+        }
+
+        private int obtainNodeID(INode node) {
+            Integer id = nodeIDs.get(node);
+            if (id == null) {
+                id = nodes.size();
+                nodes.add(node);
+                nodeIDs.put(node, id);
+            }
+            return id;
+        }
+
+        public LabeledGraph build() {
+            return new LabeledGraph(nodes.toArray(new INode[0]),
+                                    Arrays.copyOf(sources, edgeCount),
+                                    Arrays.copyOf(targets, edgeCount),
+                                    Arrays.copyOf(labels, edgeCount),
+                                    Arrays.copyOf(labelCodes, edgeCount));
+        }
+    }
+}
@@ -1,19 +1,13 @@
 package subgraph;
 
-import edu.uci.ics.jung.graph.Graph;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import mexica.core.EmotionType;
 
 /**
- * Class to determine the similary between two graphs
+ * Class to determine the similary between two graphs.<br>
+ * The evaluator keeps no state between calls, so it can be shared by several threads.
  * @author Ivan Guerrero
  */
 public class SimilarityEvaluator {
-    private static Pattern emotion = Pattern.compile("\\s*(\\d)\\s*\\((-?\\d)\\)\\s*");
-    /** Allows the correct label comparison */
-    private boolean isInverted;
     
     /**
      * Compares the two graphs obtaining its similarity. 
@@ -22,14 +16,52 @@ public class SimilarityEvaluator {
      * @param graph2
      * @return 
      */
-    public Solution evaluate(Graph<INode, IEdge> graph1, Graph<INode, IEdge> graph2) {
+    public Solution evaluate(LabeledGraph graph1, LabeledGraph graph2) {
+        return evaluate(graph1, graph2, 0);
+    }
+    
+    /**
+     * Compares the two graphs obtaining its similarity. 
+     * The method analyzes if the graph with the less number of edges is included in the other graph.
+     * @param graph1
+     * @param graph2
+     * @param minimumSimilarity Minimum similarity value expected for the solution
+     * @return The solution found, or null if its similarity is lower than the given minimum similarity
+     */
+    public Solution evaluate(LabeledGraph graph1, LabeledGraph graph2, double minimumSimilarity) {
+        return createSolution(graph1, graph2, match(graph1, graph2, minimumSimilarity));
+    }
+    
+    /**
+     * Obtains the edges matched by evaluate(graph1, graph2, minimumSimilarity) without building the solution.<br>
+     * The pairs only depend on the structure of the graphs, so they can be applied to any graphs 
+     * with the same edges and labels in the same order.
+     * @param graph1
+     * @param graph2
+     * @param minimumSimilarity Minimum similarity value expected for the solution
+     * @return The pairs (edge index in the graph with less edges, edge index in the other graph) in the order 
+     * they were matched, or null if the similarity is lower than the given minimum similarity
+     */
+    public int[][] match(LabeledGraph graph1, LabeledGraph graph2, double minimumSimilarity) {
+        if (graph1.getEdgeCount() > graph2.getEdgeCount())
+            return matchGraphs(graph2, graph1, minimumSimilarity, false);
+        else
+            return matchGraphs(graph1, graph2, minimumSimilarity, true);
+    }
+    
+    /**
+     * Builds the solution of evaluate(graph1, graph2) with the given pairs
+     * @param graph1
+     * @param graph2
+     * @param pairs The pairs obtained with the match method
+     * @return The solution, or null if there are no pairs
+     */
+    public Solution createSolution(LabeledGraph graph1, LabeledGraph graph2, int[][] pairs) {
         if (graph1.getEdgeCount() > graph2.getEdgeCount()) {
-            isInverted = false;
-            return evaluateGraphs(graph2, graph1);
+            return createSolutionFromGraphs(graph2, graph1, pairs);
         }
         else {
-            isInverted = true;
-            Solution solution = evaluateGraphs(graph1, graph2);
+            Solution solution = createSolutionFromGraphs(graph1, graph2, pairs);
             if (solution != null)
                 solution.invertMapping();
             return solution;
@@ -42,134 +74,101 @@ public class SimilarityEvaluator {
      * @param graph2 The graph with the smallest number of edges
      * @return 
      */
-    public Solution evaluateGraphs(Graph<INode, IEdge> graph1, Graph<INode, IEdge> graph2) {
-        Map<Integer,List<Solution>> solutionBundle = new HashMap<>();
-        List<Solution> solutions = new ArrayList<>();
-        Solution solution = new Solution();
-        solution.setRemainingGraph(graph2);
-        solution.setNoUnmatchedEdges(graph1.getEdgeCount());
-        solution.setNoEdges(graph2.getEdgeCount());
-        solution.setTotalEdges(graph1.getEdgeCount() + graph2.getEdgeCount());
-        solutions.add(solution);
-        int level = 0;
-        solutionBundle.put(level, solutions);
-        
-        for (IEdge ei : graph1.getEdges()) {
-            solutions = solutionBundle.get(level);
-            List<Solution> newSolutions = new ArrayList<>();
-            
-            for (Solution s : solutions) {
-                Collection<IEdge> sei = getEdgesWithLabel(ei, s.getRemainingGraph());
-                for (IEdge ej : sei) {
-                    INode mapSource = s.getMapping(ei.getSource());
-                    INode mapTarget = s.getMapping(ei.getTarget());
-                    boolean unmappedSource = isUnmapped(s, ej.getSource());
-                    boolean unmappedTarget = isUnmapped(s, ej.getTarget());
-                    if (((mapSource == null && unmappedSource) || (mapSource != null && mapSource.equals(ej.getSource()))) &&
-                        ((mapTarget == null && unmappedTarget) || (mapTarget != null && mapTarget.equals(ej.getTarget())))) {
-                        Solution newSolution = (Solution)s.clone();
-                        newSolution.setNoEdges(graph2.getEdgeCount());
-                        if (newSolution.getMapping(ei.getSource()) == null)
-                            newSolution.addMapping(ei.getSource(), ej.getSource());
-                        if (newSolution.getMapping(ei.getTarget()) == null)
-                            newSolution.addMapping(ei.getTarget(), ej.getTarget());
-                        newSolution.removeEdge(ej);
-                        newSolutions.add(newSolution);
-                    }
-                }
-            }
-            //TODO: Prevents from adding an empty level when no mappings were found, and preserves the last working set of solutions
-            if (!newSolutions.isEmpty()) {
-                level++;
-                solutionBundle.put(level, newSolutions);
-            }
-        }
-        
-        Solution maxSimilarity = calculateMaxSimilarity(solutionBundle);
-        return maxSimilarity;
+    public Solution evaluateGraphs(LabeledGraph graph1, LabeledGraph graph2) {
+        return evaluateGraphs(graph1, graph2, 0);
     }
     
-    private Collection<IEdge> getEdgesWithLabel(IEdge e, Graph<INode, IEdge> graph) {
-        Collection<IEdge> edges = new ArrayList<>();
-        for (IEdge edge : graph.getEdges()) {
-            if (compareLabels(e.getLabel(), edge.getLabel()))
-                edges.add(edge);
-        }
-        return edges;
+    /**
+     * Compares the percentage of elements in the graph1 included in the graph2.<br>
+     * The edge mapping is obtained with a branch-and-bound search that stops as soon as 
+     * the given minimum similarity cannot be reached.
+     * @param graph1 The graph with the largest number of edges
+     * @param graph2 The graph with the smallest number of edges
+     * @param minimumSimilarity Minimum similarity value expected for the solution
+     * @return The solution found, or null if its similarity is lower than the given minimum similarity
+     */
+    public Solution evaluateGraphs(LabeledGraph graph1, LabeledGraph graph2, double minimumSimilarity) {
+        return createSolutionFromGraphs(graph1, graph2, matchGraphs(graph1, graph2, minimumSimilarity, false));
     }
-
-    private Solution calculateMaxSimilarity(Map<Integer, List<Solution>> solutionBundle) {
-        double maxSimilarity = 0;
-        Solution maxSolution = null;
-        
-        for (Integer key : solutionBundle.keySet()) {
-            for (Solution sol : solutionBundle.get(key)) {
-                if (sol.getSimilarity() > maxSimilarity) {
-                    maxSimilarity = sol.getSimilarity();
-                    maxSolution = sol;
-                }
-            }
+    
+    /**
+     * Obtains the edges of the graph1 included in the graph2
+     * @param graph1
+     * @param graph2
+     * @param minimumSimilarity
+     * @param isInverted True when the graphs were swapped before the comparison, allows the correct label comparison
+     * @return The pairs (edge index in graph1, edge index in graph2), or null if the similarity is lower than the minimum similarity
+     */
+    private int[][] matchGraphs(LabeledGraph graph1, LabeledGraph graph2, double minimumSimilarity, boolean isInverted) {
+        //Edges with the same label share the list of candidates
+        int[][] bucketCandidates = new int[graph1.getBucketCount()][];
+        for (int b=0; b<graph1.getBucketCount(); b++) {
+            bucketCandidates[b] = getEdgesWithLabel(graph1.getBucketCode(b), graph2, isInverted);
+        }
+        int[][] candidates = new int[graph1.getEdgeCount()][];
+        for (int i=0; i<graph1.getEdgeCount(); i++) {
+            candidates[i] = bucketCandidates[graph1.getBucket(i)];
         }
         
-        return maxSolution;
+        BranchAndBoundMatcher matcher = new BranchAndBoundMatcher(graph1, graph2, candidates, minimumSimilarity);
+        int[][] pairs = matcher.match();
+        //Without matched edges, the solution is only valid for empty graphs
+        if (pairs == null || (pairs.length == 0 && graph1.getEdgeCount() + graph2.getEdgeCount() > 0))
+            return null;
+        for (int[] pair : pairs) {
+            pair[1] = candidates[pair[0]][pair[1]];
+        }
+        return pairs;
     }
-
+    
     /**
-     * Compare the emotions represented on every label
-     * @param label1
-     * @param label2
-     * @return True if the emotion on the first label can replace the emotion on the second label
+     * Builds the solution with the selected edges, the mappings and removed edges are added to a single solution
+     * @param graph1
+     * @param graph2
+     * @param pairs
+     * @return 
      */
-    private boolean compareLabels(String label1, String label2) {
-        Matcher m = emotion.matcher(label1);
-        Matcher m2 = emotion.matcher(label2);
-        //If both are emotions, compare its intensities
-        if (m.matches() && m2.matches()) {
-            try {
-                int type1 = Integer.parseInt(m.group(1));
-                int type2 = Integer.parseInt(m2.group(1));
-                if ((type1 == type2) || 
-                    (type1 == EmotionType.getEmotionValue(EmotionType.getAnyEmotion())) || 
-                    (type2 == EmotionType.getEmotionValue(EmotionType.getAnyEmotion()))) {
-                    int intensity1 = Integer.parseInt(m.group(2));
-                    int intensity2 = Integer.parseInt(m2.group(2));
-                    //If both have the same sign, the second label can be equal or higher
-                    if (intensity1 > 0 && intensity2 > 0) {
-                        if (isInverted)
-                            return (Math.abs(intensity1) <= Math.abs(intensity2));
-                        else
-                            return (Math.abs(intensity1) >= Math.abs(intensity2));
-                    }
-                    else if (intensity1 < 0 && intensity2 < 0) {
-                        if (isInverted)
-                            return (Math.abs(intensity1) >= Math.abs(intensity2));
-                        else
-                            return (Math.abs(intensity1) <= Math.abs(intensity2));
-                    }
-                    else
-                        return false;
-                }
-                else
-                    return false;
-            } catch (Exception e) {
-                return false;
-            }
+    private Solution createSolutionFromGraphs(LabeledGraph graph1, LabeledGraph graph2, int[][] pairs) {
+        if (pairs == null)
+            return null;
+        
+        Solution solution = new Solution();
+        solution.setGraph(graph2);
+        solution.setNoUnmatchedEdges(graph1.getEdgeCount());
+        solution.setNoEdges(graph2.getEdgeCount());
+        solution.setTotalEdges(graph1.getEdgeCount() + graph2.getEdgeCount());
+        for (int[] pair : pairs) {
+            int ei = pair[0];
+            int ej = pair[1];
+            if (solution.getMapping(graph1.getNode(graph1.getSource(ei))) == null)
+                solution.addMapping(graph1.getNode(graph1.getSource(ei)), graph2.getNode(graph2.getSource(ej)));
+            if (solution.getMapping(graph1.getNode(graph1.getTarget(ei))) == null)
+                solution.addMapping(graph1.getNode(graph1.getTarget(ei)), graph2.getNode(graph2.getTarget(ej)));
+            solution.removeEdge(ej);
         }
-        else
-            return label1.equalsIgnoreCase(label2);
+        
+        return solution;
     }
-
+    
     /**
-     * Verifies that the given node is unmapped inside the solution, so it can be mapped
-     * @param solution
-     * @param source
-     * @return True if the node is unmapped inside the solution
+     * Obtains the edges with a label compatible with the given label
+     * @param labelCode
+     * @param graph
+     * @param isInverted
+     * @return The indexes of the compatible edges in ascending order
      */
-    private boolean isUnmapped(Solution solution, INode node) {
-        for  (INode mapped : solution.getMappingValues()) {
-            if (mapped.equals(node))
-                return false;
+    private int[] getEdgesWithLabel(int labelCode, LabeledGraph graph, boolean isInverted) {
+        int[] indexes = new int[graph.getEdgeCount()];
+        int count = 0;
+        for (int b=0; b<graph.getBucketCount(); b++) {
+            if (LabelCode.areCompatible(labelCode, graph.getBucketCode(b), isInverted)) {
+                for (int edge : graph.getBucketEdges(b)) {
+                    indexes[count++] = edge;
+                }
+            }
         }
-        return true;
+        indexes = Arrays.copyOf(indexes, count);
+        Arrays.sort(indexes);
+        return indexes;
     }
-}
\ No newline at end of file
+}
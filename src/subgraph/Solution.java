@@ -1,14 +1,17 @@
 package subgraph;
 
-import edu.uci.ics.jung.graph.*;
 import java.text.DecimalFormat;
+import java.util.BitSet;
 
 /**
  * Class to represent the result of comparing two graphs
  * @author Ivan Guerrero
  */
 public class Solution implements Cloneable {
-    private Graph<INode, IEdge> remainingGraph;
+    /** The graph where the edges are removed from */
+    private LabeledGraph graph;
+    /** The edges of the graph already matched */
+    private BitSet removedEdges;
     private Mapping<INode> vertexMapping;
     private int noEdges, noRemovedEdges, noUnmatchedEdges, totalEdges;
     /** Employed when the order of the compared graphs is changed */
@@ -22,19 +25,26 @@ public class Solution implements Cloneable {
         noRemovedEdges = 0;
     }
     
-    public void setRemainingGraph(Graph<INode, IEdge> graph) {
-        remainingGraph = new SparseMultigraph<>();
-        for (INode n : graph.getVertices()) {
-            remainingGraph.addVertex(n);
-        }
-        
-        for (IEdge e : graph.getEdges()) {
-            remainingGraph.addEdge(e, e.getSource(), e.getTarget());
-        }
+    /**
+     * Sets the graph where the matched edges will be removed from
+     * @param graph 
+     */
+    public void setGraph(LabeledGraph graph) {
+        this.graph = graph;
+        removedEdges = new BitSet(graph.getEdgeCount());
+    }
+    
+    public LabeledGraph getGraph() {
+        return graph;
     }
     
-    public Graph<INode, IEdge> getRemainingGraph() {
-        return remainingGraph;
+    /**
+     * Determines if the given edge of the graph is still available
+     * @param edge
+     * @return True if the edge hasn't been removed
+     */
+    public boolean isRemainingEdge(int edge) {
+        return !removedEdges.get(edge);
     }
     
     public INode getMapping(INode vertex) {
@@ -65,7 +75,8 @@ public class Solution implements Cloneable {
     @Override
     public Object clone() {
         Solution s = new Solution();
-        s.setRemainingGraph(remainingGraph);
+        s.graph = graph;
+        s.removedEdges = (BitSet)removedEdges.clone();
         s.noEdges = noEdges;
         s.noRemovedEdges = getNoRemovedEdges();
         s.noUnmatchedEdges = noUnmatchedEdges;
@@ -78,8 +89,8 @@ public class Solution implements Cloneable {
         return s;
     }
 
-    public void removeEdge(IEdge ej) {
-        remainingGraph.removeEdge(ej);
+    public void removeEdge(int ej) {
+        removedEdges.set(ej);
         noRemovedEdges++;
         noUnmatchedEdges--;
     }
@@ -90,11 +101,21 @@ public class Solution implements Cloneable {
      * @return Jaccard similarity
      */
     public double getSimilarity() {
-        if (totalEdges - noRemovedEdges > 0)
-            return noRemovedEdges * 100.0 / (totalEdges - noRemovedEdges);
+        return getSimilarity(noRemovedEdges, totalEdges);
+        //return (double)getNoRemovedEdges() / (noEdges + noUnmatchedEdges) * 100.0;
+    }
+    
+    /**
+     * Obtains the Jaccard similarity for the given number of matched edges
+     * @param removedEdges Number of edges matched between the two graphs
+     * @param totalEdges Number of edges in both graphs
+     * @return Jaccard similarity
+     */
+    public static double getSimilarity(int removedEdges, int totalEdges) {
+        if (totalEdges - removedEdges > 0)
+            return removedEdges * 100.0 / (totalEdges - removedEdges);
         else
             return 100;
-        //return (double)getNoRemovedEdges() / (noEdges + noUnmatchedEdges) * 100.0;
     }
     
     public String getSimilarityAsString() {
@@ -107,7 +128,7 @@ public class Solution implements Cloneable {
     
     @Override
     public String toString() {
-        return "Graph: " + remainingGraph.toString() + 
+        return "Graph: " + graph.toString(removedEdges) + 
                 "\nMap: " + vertexMapping.toString() + 
                 "\nSimilarity: " + format.format(getSimilarity());
     }